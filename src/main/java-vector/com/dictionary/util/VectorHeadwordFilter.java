@@ -0,0 +1,52 @@
+package com.dictionary.util;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link HeadwordColumns} 预筛选的 SIMD 实现
+ * 每次比较一组词头的长度差、首末字母和 bigram 签名交集的位数，通过的下标写入输出数组。
+ * 只在以 vector 配置构建（mvn -Pvector）时编译，运行时加入了 jdk.incubator.vector 模块才会被加载。
+ */
+final class VectorHeadwordFilter implements HeadwordFilter {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    VectorHeadwordFilter() {
+    }
+
+    @Override
+    public int loopBound(int count) {
+        return SPECIES.loopBound(count);
+    }
+
+    @Override
+    public int filter(long[] lengths, long[] firsts, long[] lasts, long[] signatures, int count,
+                      long qLength, long qFirst, long qLast, long qSignature,
+                      int maxLengthDiff, int minShared, int[] out) {
+        int size = 0;
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Long> mask = LongVector.fromArray(SPECIES, lengths, i)
+                    .sub(qLength)
+                    .lanewise(VectorOperators.ABS)
+                    .compare(VectorOperators.LE, maxLengthDiff);
+            if (!mask.anyTrue()) {
+                continue;
+            }
+            VectorMask<Long> edge = LongVector.fromArray(SPECIES, firsts, i).compare(VectorOperators.EQ, qFirst)
+                    .or(LongVector.fromArray(SPECIES, lasts, i).compare(VectorOperators.EQ, qLast));
+            VectorMask<Long> shared = LongVector.fromArray(SPECIES, signatures, i)
+                    .and(qSignature)
+                    .lanewise(VectorOperators.BIT_COUNT)
+                    .compare(VectorOperators.GE, minShared);
+            long bits = mask.and(edge.or(shared)).toLong();
+            while (bits != 0) {
+                out[size++] = i + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return size;
+    }
+}
@@ -76,7 +76,7 @@ public class DictionaryApp extends Application {
     private Label loadingLabel;
 
     // Add lazy loading fields
-    private boolean dictionaryLoaded = false;
+    private volatile boolean dictionaryLoaded = false;
     private boolean uiInitialized = false;
 
     // Add pagination fields
@@ -148,15 +148,14 @@ public class DictionaryApp extends Application {
                     Platform.runLater(() -> showLoading("正在加载词典..."));
                     
                     // Load dictionary in background
-                    dictionary.loadFromFile(FileIOUtil.CSV_PATH);
+                    // 二进制词典映射完成即可查询，索引在本线程继续建立
+                    dictionary.loadFromFile(FileIOUtil.CSV_PATH, () -> {
+                        dictionaryLoaded = true;
+                        Platform.runLater(this::hideLoading);
+                    });
                     wordBook.loadFromFile(FileIOUtil.FAVORITES_PATH);
                     
-                    dictionaryLoaded = true;
-                    
-                    Platform.runLater(() -> {
-                        hideLoading();
-                        updateTableView();
-                    });
+                    Platform.runLater(this::updateTableView);
                 } catch (Exception e) {
                     Platform.runLater(() -> {
                         hideLoading();
@@ -426,7 +425,7 @@ public class DictionaryApp extends Application {
             }
         });
         
-        // Add debounced search
+        // 输入时防抖显示前缀补全，回车或点击查询按钮时执行完整查询
         searchField.textProperty().addListener((obs, oldText, newText) -> {
             if (searchTask != null) {
                 searchTask.cancel(false);
@@ -434,7 +433,7 @@ public class DictionaryApp extends Application {
             
             if (!newText.trim().isEmpty()) {
                 searchTask = uiUpdateExecutor.schedule(
-                    () -> Platform.runLater(() -> searchWord()),
+                    () -> Platform.runLater(() -> showCompletions()),
                     DEBOUNCE_DELAY_MS,
                     TimeUnit.MILLISECONDS
                 );
@@ -725,6 +724,37 @@ public class DictionaryApp extends Application {
         searchField.clear();
     }
 
+    /**
+     * 输入过程中显示补全结果：英译中按前缀补全，无补全结果或中译英时退回相似词查询。
+     * 不清空输入框，也不弹出提示。
+     */
+    private void showCompletions() {
+        String text = searchField.getText().trim();
+        if (text.isEmpty()) {
+            return;
+        }
+
+        loadDictionaryIfNeeded();
+        if (!dictionaryLoaded) {
+            return;
+        }
+
+        boolean isEnglishToChinese = englishToChineseBtn.isSelected();
+        List<Word> results = isEnglishToChinese ? dictionary.findCompletions(text) : new ArrayList<>();
+        if (results.isEmpty()) {
+            results = dictionary.findSimilarWords(text, isEnglishToChinese);
+        }
+
+        currentWordListProperty.get().clear();
+        currentWordListProperty.get().addAll(results);
+        if (results.isEmpty()) {
+            wordList.setItems(FXCollections.observableArrayList());
+            return;
+        }
+        currentPageProperty.set(0);
+        showPage(0);
+    }
+
     private void clearResults() {
         wordList.setItems(FXCollections.observableArrayList());
         searchField.clear();
@@ -755,14 +785,12 @@ public class DictionaryApp extends Application {
         File file = fileChooser.showOpenDialog(primaryStage);
         
         if (file != null) {
-            try {
-                List<Word> importedWords = FileIOUtil.readDictionaryFile(file.getPath());
-                dictionary.addAll(importedWords);
-                FileIOUtil.updateDictionaryFile(FileIOUtil.CSV_PATH, dictionary.getAllWords());
-                showAlert("词典导入成功", Alert.AlertType.INFORMATION);
-            } catch (Exception e) {
-                e.printStackTrace();
-                showAlert("导入词典失败: " + e.getMessage(), Alert.AlertType.ERROR);
+            // 与词典仓库页面的导入相同：后台分批导入，可取消，未完成时可从中断处继续
+            for (Node node : root.getChildren()) {
+                if (node instanceof DictionaryRepositoryPage) {
+                    ((DictionaryRepositoryPage) node).importFile(file);
+                    return;
+                }
             }
         }
     }
@@ -15,14 +15,20 @@ import javafx.animation.*;
 import javafx.util.Duration;
 import javafx.application.Platform;
 import com.dictionary.util.SVGUtil;
-import com.dictionary.util.DictionaryImportUtil;
+import com.dictionary.util.DataProcessor;
+import com.dictionary.util.FileIOUtil;
 import com.dictionary.model.Dictionary;
+import com.dictionary.model.ImportJob;
+import com.dictionary.service.DictionaryService;
 import com.dictionary.model.Word;
 import javax.swing.ImageIcon;
 import java.awt.image.BufferedImage;
 import javafx.embed.swing.SwingFXUtils;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.io.File;
 
 public class DictionaryRepositoryPage extends VBox {
@@ -54,7 +60,7 @@ public class DictionaryRepositoryPage extends VBox {
 
     private void updateWordCount() {
         if (wordCountLabel != null && dictionary != null) {
-            int count = dictionary.getAllWords().size();
+            int count = dictionary.size();
             Platform.runLater(() -> wordCountLabel.setText("词条数: " + count));
         }
     }
@@ -146,7 +152,7 @@ public class DictionaryRepositoryPage extends VBox {
         HBox statsBox = new HBox(20);
         statsBox.setAlignment(Pos.CENTER_LEFT);
         
-        wordCountLabel = new Label("词条数: " + (dictionary != null ? dictionary.getAllWords().size() : 0));
+        wordCountLabel = new Label("词条数: " + (dictionary != null ? dictionary.size() : 0));
         wordCountLabel.getStyleClass().add("dictionary-stats");
         
         Label updateLabel = new Label("上次更新: 2023-12-19");
@@ -237,35 +243,113 @@ public class DictionaryRepositoryPage extends VBox {
         
         File file = fileChooser.showOpenDialog(primaryStage);
         if (file != null) {
-            // 显示加载对话框
-            ProgressDialog progressDialog = new ProgressDialog(primaryStage, "正在导入词典...");
-            progressDialog.show();
-            
-            // 在后台线程中处理导入
-            new Thread(() -> {
-                try {
-                    DictionaryImportUtil.ImportResult result = DictionaryImportUtil.importDictionary(file);
+            importFile(file);
+        }
+    }
+
+    /**
+     * 导入词典文件到当前词典和词典文件
+     * 导入作为任务记录在数据库中，每写入一批记录一次检查点；该文件上次导入未完成且文件未改变时，可从中断处继续。
+     * 数据库在后台线程中打开，不可用时照常导入，只是不记录检查点。
+     */
+    public void importFile(File file) {
+        // 确认是否继续上次的导入之后再显示
+        ProgressDialog progressDialog = new ProgressDialog(primaryStage, "正在导入词典...");
+        
+        // 在后台线程中处理导入
+        new Thread(() -> {
+            try {
+                ImportJob result = runImport(file, progressDialog);
+                
+                Platform.runLater(() -> {
+                    progressDialog.close();
+                    updateWordCount();
                     
-                    Platform.runLater(() -> {
-                        progressDialog.close();
-                        
-                        if (result.isSuccess()) {
-                            List<Word> words = result.getWords();
-                            dictionary.addAll(words);
-                            updateWordCount();
-                            showAlert("导入成功", "成功导入 " + words.size() + " 个词条", Alert.AlertType.INFORMATION);
-                        } else {
-                            showAlert("导入失败", result.getError(), Alert.AlertType.ERROR);
-                        }
-                    });
-                } catch (Exception ex) {
-                    Platform.runLater(() -> {
-                        progressDialog.close();
-                        showAlert("导入失败", ex.getMessage(), Alert.AlertType.ERROR);
-                    });
-                }
-            }).start();
+                    boolean resumable = result.getId() != null;
+                    if (ImportJob.STATUS_COMPLETED.equals(result.getStatus())) {
+                        showAlert("导入成功", "成功导入 " + result.getWordsWritten() + " 个词条", Alert.AlertType.INFORMATION);
+                    } else if (ImportJob.STATUS_CANCELLED.equals(result.getStatus())) {
+                        showAlert("导入已取消", "已导入 " + result.getWordsWritten() + " 个词条"
+                            + (resumable ? "，再次导入该文件可从中断处继续" : ""), Alert.AlertType.INFORMATION);
+                    } else {
+                        showAlert("导入失败", result.getError() + (resumable ? "\n再次导入该文件可从中断处继续" : ""),
+                            Alert.AlertType.ERROR);
+                    }
+                });
+            } catch (Exception ex) {
+                Platform.runLater(() -> {
+                    progressDialog.close();
+                    showAlert("导入失败", ex.getMessage(), Alert.AlertType.ERROR);
+                });
+            }
+        }).start();
+    }
+
+    /**
+     * 在后台线程中运行：解析、规范化和去重并行进行，按批次依次加入词典并追加到词典文件；
+     * 重新写入的批次中已在词典中的词条会被跳过
+     */
+    private ImportJob runImport(File file, ProgressDialog progressDialog) {
+        // 先写入文件：写入失败时该批次不加入词典，续传时不会被当作已导入而跳过
+        Consumer<List<Word>> writer = batch -> {
+            FileIOUtil.appendWordsToFile(FileIOUtil.CSV_PATH, batch);
+            dictionary.addAll(batch);
+        };
+        Consumer<DataProcessor.ImportProgress> listener =
+            progress -> Platform.runLater(() -> progressDialog.update(progress));
+
+        DictionaryService service;
+        ImportJob job;
+        try {
+            service = new DictionaryService();
+            job = prepareImport(service, file);
+        } catch (RuntimeException ex) {
+            System.err.println("无法记录导入任务，本次导入不可续传: " + ex.getMessage());
+            Platform.runLater(progressDialog::show);
+            return DictionaryService.runUnrecordedImport(file, dictionary::contains, writer, listener,
+                progressDialog::isCancelled);
+        }
+        Platform.runLater(progressDialog::show);
+        return service.runImport(job, dictionary::contains, writer, listener, progressDialog::isCancelled);
+    }
+
+    /**
+     * 该文件上次导入未完成时询问是否继续，否则新建导入任务
+     */
+    private ImportJob prepareImport(DictionaryService service, File file) {
+        Optional<ImportJob> unfinished = service.findResumableImport(null, file);
+        if (unfinished.isPresent() && askResume(unfinished.get())) {
+            return unfinished.get();
         }
+        unfinished.ifPresent(service::discardImport);
+        return service.startImport(null, file);
+    }
+
+    /**
+     * 在 FX 线程中询问，当前线程等待回答
+     */
+    private boolean askResume(ImportJob job) {
+        CompletableFuture<Boolean> answer = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                answer.complete(confirmResume(job));
+            } catch (RuntimeException ex) {
+                answer.completeExceptionally(ex);
+            }
+        });
+        return answer.join();
+    }
+
+    private boolean confirmResume(ImportJob job) {
+        ButtonType resume = new ButtonType("继续导入", ButtonBar.ButtonData.YES);
+        ButtonType restart = new ButtonType("重新导入", ButtonBar.ButtonData.NO);
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION,
+            "上次导入该文件未完成（已读取 " + job.getSourceWords() + " 个词条，写入 " + job.getWordsWritten()
+                + " 个），是否从中断处继续？", resume, restart);
+        alert.setTitle("继续导入");
+        alert.setHeaderText(null);
+        alert.initOwner(primaryStage);
+        return alert.showAndWait().orElse(restart) == resume;
     }
 
     private void showAlert(String title, String content, Alert.AlertType type) {
@@ -286,11 +370,9 @@ public class DictionaryRepositoryPage extends VBox {
 
     private void updateStatistics() {
         if (dictionary != null && wordCountLabel != null) {
-            List<Word> words = dictionary.getAllWords();
-            int totalWords = words.size();
-            int englishWords = (int) words.stream()
-                .filter(w -> w.getWord().matches("^[a-zA-Z\\s-]+$"))
-                .count();
+            // 计数由词典在增删改时维护，无需遍历全部词条
+            int totalWords = dictionary.size();
+            int englishWords = dictionary.getEnglishWordCount();
             int chineseWords = totalWords - englishWords;
             
             Platform.runLater(() -> {
@@ -304,6 +386,12 @@ public class DictionaryRepositoryPage extends VBox {
 }
 
 class ProgressDialog extends Dialog<Void> {
+    private final ProgressIndicator progress;
+    private final Label messageLabel;
+    private final Label detailLabel;
+    private final Button cancelButton;
+    private volatile boolean cancelled;
+
     public ProgressDialog(Stage owner, String message) {
         initOwner(owner);
         setTitle("请稍候");
@@ -312,17 +400,50 @@ class ProgressDialog extends Dialog<Void> {
         content.setPadding(new Insets(20));
         content.setAlignment(Pos.CENTER);
         
-        ProgressIndicator progress = new ProgressIndicator();
+        progress = new ProgressIndicator();
         progress.setMaxSize(50, 50);
         
-        Label messageLabel = new Label(message);
+        messageLabel = new Label(message);
         messageLabel.setFont(Font.font("Microsoft YaHei", 14));
         
-        content.getChildren().addAll(progress, messageLabel);
+        detailLabel = new Label();
+        detailLabel.setFont(Font.font("Microsoft YaHei", 12));
+        
+        // 取消在当前批次写入后生效，已写入的词条保留
+        cancelButton = new Button("取消");
+        cancelButton.getStyleClass().add("dictionary-button");
+        cancelButton.setOnAction(e -> {
+            cancelled = true;
+            cancelButton.setDisable(true);
+            messageLabel.setText("正在取消...");
+        });
+        
+        content.getChildren().addAll(progress, messageLabel, detailLabel, cancelButton);
         getDialogPane().setContent(content);
         
         getDialogPane().getStylesheets().add(
             getClass().getResource("/styles/modern-theme.css").toExternalForm()
         );
     }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 显示导入进度：已写入词条数、吞吐量、各阶段队列中的批次数和预计剩余时间
+     */
+    public void update(DataProcessor.ImportProgress importProgress) {
+        if (cancelled) {
+            return;
+        }
+        double fraction = importProgress.getSourceFraction();
+        progress.setProgress(fraction >= 0 ? fraction : ProgressIndicator.INDETERMINATE_PROGRESS);
+        messageLabel.setText(String.format("已导入 %d 个词条（跳过 %d 个），%.0f 条/秒",
+            importProgress.getWordsWritten(), importProgress.getSkipped(), importProgress.getThroughput()));
+        long eta = importProgress.getEtaMillis();
+        detailLabel.setText(String.format("队列: 解析 %d / 规范化 %d / 写入 %d%s",
+            importProgress.getParsedQueueDepth(), importProgress.getNormalizedQueueDepth(),
+            importProgress.getWriteQueueDepth(), eta >= 0 ? "，预计剩余 " + (eta + 999) / 1000 + " 秒" : ""));
+    }
 } 
\ No newline at end of file
@@ -3,46 +3,128 @@ package com.dictionary.model;
 import com.dictionary.util.WordFormUtil;
 import com.dictionary.util.FuzzyMatchUtil;
 import com.dictionary.util.FileIOUtil;
+import com.dictionary.util.DeletionIndex;
+import com.dictionary.util.QGramIndex;
+import com.dictionary.util.PhoneticIndex;
+import com.dictionary.util.PrefixTrie;
+import com.dictionary.util.TranslationIndex;
+import com.dictionary.util.TopKSelector;
+import com.dictionary.util.HeadwordColumns;
+import com.dictionary.util.SimilarityMemo;
+import com.dictionary.util.QueryCache;
+import com.dictionary.util.AppendOnlyArray;
+import com.dictionary.util.AppendOnlyIntArray;
+import com.dictionary.util.BinaryDictionaryFile;
+import com.dictionary.util.IndexSnapshot;
+import com.dictionary.util.EntryStore;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntToDoubleFunction;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
+/**
+ * 词典
+ * 查询与增删改可以在不同线程同时进行：每次修改生成一个新版本（{@link Snapshot}），查询开始时读取一次当前版本，
+ * 之后只看到该版本的词条，既不加锁也不会看到修改到一半的状态。修改之间互斥。
+ * 加载词典时先映射二进制词典文件，索引建立完成之前由它直接提供英文词头的精确查询和前缀补全。
+ * 建立代价最高的索引保存为快照（{@link IndexSnapshot}），词典文件未改变时下次启动直接读入。
+ * 词条的文本存放在紧凑的 {@link EntryStore} 中（可选堆外），查询按编号读取，返回结果时才创建 {@link Word}。
+ */
 public class Dictionary {
-    private List<Word> words;
+    private static final Pattern ENGLISH_HEADWORD = Pattern.compile("^[a-zA-Z\\s-]+$");
+    // 批量加入不超过该条数时逐条判断缓存是否受影响，否则整体清空
+    private static final int MAX_SELECTIVE_INVALIDATION = 64;
+    // 旧版本数超过该值且超过存活词条数的四分之一时，按当前版本重建词条表和索引
+    private static final int MIN_VACUUM_GARBAGE = 1024;
+
+    // 当前版本，读取方只需读取一次
+    private volatile Snapshot current;
+    // 修改操作互斥
+    private final Object writeLock = new Object();
+    // 正在建立索引的词典文件，非空时查询由它提供
+    private volatile BinaryDictionaryFile opened;
     private Set<String> commonWords;
+    // 高频词 -> 频率名次（0 为最高），用于补全排序
+    private Map<String, Integer> wordRanks;
+    private static final int MAX_COMPLETIONS = 24; // 补全结果最大条数
+    private static final int MAX_RESULTS = 24; // 相似词查询结果最大条数
     
     // 添加缓存
-    private static final int MAX_CACHE_SIZE = 1000; // 最大缓存条目数
-    private final Map<String, List<Word>> queryCache; // 查询结果缓存
-    private final Map<String, Double> similarityCache; // 相似度计算缓存
-    private final LinkedHashMap<String, Long> cacheAccessTime; // 缓存访问时间记录
+    private static final int MAX_CACHE_WEIGHT = 25_000; // 查询缓存的权重上限（每个查询计 1，每条结果再计 1）
+    private final QueryCache<CacheKey, CachedResult> queryCache; // 查询结果缓存
+    private static final int SIMILARITY_MEMO_CAPACITY = 1 << 16; // 相似度缓存槽位数
     
     public Dictionary() {
-        words = new ArrayList<>();
-        queryCache = new ConcurrentHashMap<>();
-        similarityCache = new ConcurrentHashMap<>();
-        cacheAccessTime = new LinkedHashMap<String, Long>() {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
-                return size() > MAX_CACHE_SIZE;
-            }
-        };
+        queryCache = new QueryCache<>(MAX_CACHE_WEIGHT, entry -> entry.results.size() + 1);
         loadCommonWords();
+        loadWordRanks();
+        current = build(Collections.emptyList(), 0);
     }
 
     public void loadFromFile(String filename) {
+        loadFromFile(filename, null);
+    }
+
+    /**
+     * 加载词典文件
+     * 映射对应的二进制词典后即调用 onOpened，此后查询立即可用；随后在当前线程建立索引，完成前修改操作等待。
+     * 索引快照与词典文件一致时从快照恢复索引，否则重新建立并写入新的快照。
+     * @param onOpened 可为 null
+     */
+    public void loadFromFile(String filename, Runnable onOpened) {
         try {
-            List<Word> loadedWords = FileIOUtil.readDictionaryFile(filename);
-            words.clear();
-            words.addAll(loadedWords);
-            clearCache();
+            BinaryDictionaryFile file = FileIOUtil.openDictionaryFile(filename);
+            Path snapshotPath = FileIOUtil.indexSnapshotPathFor(filename);
+            // 由二进制词典文件头中的校验和得出，不再读取词典文件
+            byte[] sourceKey = IndexSnapshot.sourceKey(file, commonWords);
+            Snapshot loaded;
+            boolean restored;
+            synchronized (writeLock) {
+                opened = file;
+                try {
+                    if (onOpened != null) {
+                        onOpened.run();
+                    }
+                    IndexSnapshot saved = readIndexSnapshot(snapshotPath, sourceKey, file.size());
+                    restored = saved != null;
+                    loaded = build(file.asList(), current.version + 1, saved);
+                    current = loaded;
+                } finally {
+                    // 先发布新版本再清除，查询先读 opened 再读 current，不会看到空的旧版本
+                    opened = null;
+                }
+                clearCache();
+            }
+            if (!restored) {
+                // 在锁外写入快照：只写出本次加载的词条，之后的修改不受影响
+                try {
+                    IndexSnapshot.write(snapshotPath, sourceKey, loaded.liveWords(), commonWords,
+                            loaded.indexes.phoneticIndex, loaded.indexes.deletionIndex);
+                } catch (IOException e) {
+                    System.err.println("写入索引快照失败: " + e.getMessage());
+                }
+            }
         } catch (Exception e) {
             throw new RuntimeException("加载词典文件失败: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 读取与词典文件一致的索引快照，不存在、已过期或损坏时返回 null
+     */
+    private static IndexSnapshot readIndexSnapshot(Path path, byte[] sourceKey, int entryCount) {
+        try {
+            IndexSnapshot saved = IndexSnapshot.read(path, sourceKey);
+            return saved != null && saved.getEntryCount() == entryCount ? saved : null;
+        } catch (IOException e) {
+            System.err.println("索引快照无效，重新建立索引: " + e.getMessage());
+            return null;
+        }
+    }
+
     private void loadCommonWords() {
         commonWords = new HashSet<>();
         String filePath = System.getProperty("user.dir") + File.separator + "src" + File.separator + "main" + File.separator + "resources" + File.separator + "CommonWords.csv";
@@ -57,37 +139,463 @@ public class Dictionary {
         }
     }
 
+    /**
+     * 加载按频率从高到低排列的高频词表（每行一个词）；只是粗略的名次，缺失时补全只区分常用词
+     */
+    private void loadWordRanks() {
+        wordRanks = new HashMap<>();
+        String filePath = System.getProperty("user.dir") + File.separator + "src" + File.separator + "main" + File.separator + "resources" + File.separator + "WordFrequency.csv";
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String word = line.trim().toLowerCase();
+                if (!word.isEmpty()) {
+                    wordRanks.putIfAbsent(word, wordRanks.size());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("加载高频词表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 词头在补全中的权重：高频词按名次排在最前，其次是常用词，其余为 0
+     */
+    private int completionWeight(String key, boolean common) {
+        Integer rank = wordRanks.get(key);
+        if (rank != null) {
+            return 2 + wordRanks.size() - rank;
+        }
+        return common ? 1 : 0;
+    }
+
     public void addWord(Word word) {
-        words.add(word);
-        clearCache(); // 清除缓存
+        addAll(Collections.singletonList(word));
     }
 
+    /**
+     * 批量加入词条：整批作为一个新版本发布，查询要么看到全部新词条，要么一条也看不到
+     */
     public void addAll(List<Word> newWords) {
-        words.addAll(newWords);
-        clearCache(); // 清除缓存
+        if (newWords.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            Snapshot snapshot = current;
+            long version = snapshot.version + 1;
+            Slot[] slots = ensureCapacity(snapshot.slots, snapshot.highWater + newWords.size());
+            int id = snapshot.highWater;
+            int englishCount = snapshot.englishCount;
+            for (Word word : newWords) {
+                int entry = snapshot.store.add(word);
+                slots[id] = new Slot(entry, version, null);
+                indexWord(snapshot.indexes, id, entry, word);
+                if (isEnglishHeadword(word.getWord())) {
+                    englishCount++;
+                }
+                id++;
+            }
+            current = new Snapshot(version, id, slots, snapshot.store, snapshot.baseVersion, snapshot.indexes,
+                    snapshot.liveCount + newWords.size(), englishCount, snapshot.garbage);
+
+            if (newWords.size() <= MAX_SELECTIVE_INVALIDATION) {
+                queryCache.invalidateIf((key, entry) -> {
+                    for (Word word : newWords) {
+                        if (isAffected(key, entry, word)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                });
+            } else {
+                clearCache(); // 清除缓存
+            }
+        }
+    }
+
+    /**
+     * 是否已有与 word 相等的词条；读取当前版本，无需加锁
+     */
+    public boolean contains(Word word) {
+        return findEntry(current, word) != -1;
     }
 
     public void removeWord(Word word) {
-        words.remove(word);
-        clearCache(); // 清除缓存
+        synchronized (writeLock) {
+            Snapshot snapshot = current;
+            int id = findEntry(snapshot, word);
+            if (id == -1) {
+                return;
+            }
+            long version = snapshot.version + 1;
+            Slot slot = slotOf(snapshot, id);
+            slot.deleted = version;
+            snapshot.slots[id] = slot;
+            Term term = snapshot.indexes.termOf(slot.entry);
+            int englishCount = snapshot.englishCount - (isEnglishHeadword(term.text) ? 1 : 0);
+            current = new Snapshot(version, snapshot.highWater, snapshot.slots, snapshot.store, snapshot.baseVersion,
+                    snapshot.indexes, snapshot.liveCount - 1, englishCount, snapshot.garbage + 1);
+            invalidateCache(snapshot.store.getWord(slot.entry)); // 清除受影响的缓存
+            snapshot.indexes.similarityMemo.invalidate(slot.entry);
+            retireTerm(term);
+            vacuumIfNeeded();
+        }
     }
 
     public void modifyWord(Word oldWord, Word newWord) {
-        int index = words.indexOf(oldWord);
-        if (index != -1) {
-            words.set(index, newWord);
-            clearCache(); // 清除缓存
+        synchronized (writeLock) {
+            Snapshot snapshot = current;
+            int id = findEntry(snapshot, oldWord);
+            if (id == -1) {
+                return;
+            }
+            // 沿用原编号，词条顺序不变；旧版本留在链上供正在进行的查询读取
+            long version = snapshot.version + 1;
+            Slot replaced = slotOf(snapshot, id);
+            replaced.deleted = version;
+            Term term = snapshot.indexes.termOf(replaced.entry);
+            int entry = snapshot.store.add(newWord);
+            snapshot.slots[id] = new Slot(entry, version, replaced);
+            indexWord(snapshot.indexes, id, entry, newWord);
+            int englishCount = snapshot.englishCount
+                    - (isEnglishHeadword(term.text) ? 1 : 0)
+                    + (isEnglishHeadword(newWord.getWord()) ? 1 : 0);
+            current = new Snapshot(version, snapshot.highWater, snapshot.slots, snapshot.store, snapshot.baseVersion,
+                    snapshot.indexes, snapshot.liveCount, englishCount, snapshot.garbage + 1);
+            invalidateCache(snapshot.store.getWord(replaced.entry)); // 清除受影响的缓存
+            invalidateCache(newWord);
+            snapshot.indexes.similarityMemo.invalidate(replaced.entry);
+            retireTerm(term);
+            vacuumIfNeeded();
+        }
+    }
+
+    /**
+     * 词条数
+     */
+    public int size() {
+        BinaryDictionaryFile file = opened;
+        return file != null ? file.size() : current.liveCount;
+    }
+
+    /**
+     * 词头只由英文字母、空白和连字符组成的词条数，其余计为中文词条
+     */
+    public int getEnglishWordCount() {
+        return current.englishCount;
+    }
+
+    private static boolean isEnglishHeadword(String headword) {
+        return ENGLISH_HEADWORD.matcher(headword).matches();
+    }
+
+    /**
+     * 编号当前的版本；加载时建立的词条没有版本记录，第一次删除或修改时补上，由调用方写回词条表
+     */
+    private static Slot slotOf(Snapshot snapshot, int id) {
+        Slot slot = snapshot.slots[id];
+        return slot != null ? slot : new Slot(id, snapshot.baseVersion, null);
+    }
+
+    private static Slot[] ensureCapacity(Slot[] slots, int capacity) {
+        if (capacity <= slots.length) {
+            return slots;
+        }
+        // 旧数组仍由之前的版本引用，之后的写入只进入新数组
+        return Arrays.copyOf(slots, Math.max(capacity, slots.length * 2));
+    }
+
+    /**
+     * 按词条顺序查找第一个与 word 相等的词条编号；相等的词条词头相同，只需检查当前词头仍为该词头的编号
+     */
+    private static int findEntry(Snapshot snapshot, Word word) {
+        Term term = snapshot.indexes.headwords.get(word.getFoldedWord());
+        if (term == null) {
+            return -1;
+        }
+        AppendOnlyIntArray ids = term.ids;
+        AppendOnlyIntArray entryTerms = snapshot.indexes.entryTerms;
+        int found = -1;
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            if (found != -1 && id > found) continue;
+            int entry = snapshot.entryAt(id);
+            if (entry != -1 && entryTerms.get(entry) == term.id && snapshot.store.getWord(entry).equals(word)) {
+                found = id;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 当前版本中已没有该词头的词条时，将其从前缀树中移除，避免失效的词头占用补全名额；
+     * 之后再加入该词头的词条时由 indexWord 重新加入
+     */
+    private void retireTerm(Term term) {
+        Snapshot snapshot = current;
+        if (firstEntry(snapshot, term) == -1) {
+            snapshot.indexes.prefixTrie.remove(term.text);
         }
     }
 
+    /**
+     * 索引只追加，被删除或替换的词条仍留在索引中，查询时按版本过滤。
+     * 这类旧版本积累过多时，以当前存活的词条重建词条表和全部索引作为同一版本发布，摊还到每次修改为 O(1)；
+     * 正在进行的查询继续使用旧的词条表和索引。
+     */
+    private void vacuumIfNeeded() {
+        Snapshot snapshot = current;
+        if (snapshot.garbage < MIN_VACUUM_GARBAGE || snapshot.garbage < snapshot.liveCount / 4) {
+            return;
+        }
+        current = build(snapshot.liveWords(), snapshot.version);
+    }
+
+    /**
+     * 由词条列表建立新的词条表和索引
+     */
+    private Snapshot build(List<Word> words, long version) {
+        return build(words, version, null);
+    }
+
+    /**
+     * 由词条列表建立新的词条表和索引；saved 非空时词头哈希索引、音素和删除邻域索引取自快照
+     * 各索引只由一个线程写入，彼此独立，这里每个索引由一个任务按词头首次出现的顺序加入，并行建立，
+     * 结果与逐条调用 indexWord 相同。全部完成后才发布新版本。
+     * 词条按编号顺序写入新的存储，存储编号与词条编号相同，不为其建立版本记录；解码得到的 Word 在建立后即可回收。
+     */
+    private Snapshot build(List<Word> words, long version, IndexSnapshot saved) {
+        int size = words.size();
+        Word[] entries = new Word[size];
+        // 从映射文件读取时逐条解码并计算派生字段，可以并行
+        IntStream.range(0, size).parallel().forEach(id -> entries[id] = words.get(id));
+
+        Indexes indexes;
+        List<String> terms = new ArrayList<>();
+        // 各词头在补全中的权重：高频词按名次优先，其次是常用词
+        List<Integer> weights = new ArrayList<>();
+        // 存储编号与词条编号相同
+        int[] entryTerms = new int[size];
+        if (saved == null) {
+            indexes = new Indexes();
+            for (int id = 0; id < size; id++) {
+                String key = entries[id].getFoldedWord();
+                Term term = indexes.headwords.get(key);
+                if (term == null) {
+                    term = indexes.addTerm(key, commonWords.contains(key), AppendOnlyIntArray.of(id));
+                    terms.add(key);
+                    weights.add(completionWeight(key, term.common));
+                } else {
+                    term.ids = term.ids.append(id);
+                }
+                entryTerms[id] = term.id;
+            }
+        } else {
+            indexes = new Indexes(saved.getDeletionIndex(), saved.getPhoneticIndex());
+            for (int i = 0; i < saved.getTermCount(); i++) {
+                String key = saved.getTerm(i);
+                int[] ids = saved.getEntryIds(i);
+                Term term = indexes.addTerm(key, saved.isCommon(i), AppendOnlyIntArray.wrap(ids));
+                terms.add(key);
+                weights.add(completionWeight(key, term.common));
+                for (int id : ids) {
+                    entryTerms[id] = term.id;
+                }
+            }
+        }
+        indexes.entryTerms = AppendOnlyIntArray.wrap(entryTerms);
+
+        EntryStore store = EntryStore.create();
+        List<Runnable> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            for (Word entry : entries) {
+                store.add(entry);
+            }
+        });
+        if (saved == null) {
+            tasks.add(() -> terms.forEach(indexes.deletionIndex::add));
+            tasks.add(() -> terms.forEach(indexes.phoneticIndex::add));
+        }
+        tasks.add(() -> terms.forEach(indexes.qgramIndex::add));
+        tasks.add(() -> {
+            for (int i = 0; i < terms.size(); i++) {
+                indexes.prefixTrie.add(terms.get(i), weights.get(i));
+            }
+        });
+        tasks.add(() -> terms.forEach(indexes.headwordColumns::add));
+        tasks.add(() -> {
+            for (int id = 0; id < size; id++) {
+                indexes.translationIndex.add(id, id, entries[id]);
+            }
+        });
+        tasks.parallelStream().forEach(Runnable::run);
+
+        int englishCount = 0;
+        for (int id = 0; id < size; id++) {
+            if (isEnglishHeadword(entries[id].getWord())) {
+                englishCount++;
+            }
+        }
+        return new Snapshot(version, size, new Slot[Math.max(16, size)], store, version, indexes,
+                size, englishCount, 0);
+    }
+
+    /**
+     * 将词条加入索引；必须在发布包含该词条的版本之前完成
+     */
+    private void indexWord(Indexes indexes, int id, int entry, Word word) {
+        String key = word.getFoldedWord();
+        Term term = indexes.headwords.get(key);
+        if (term == null) {
+            boolean common = commonWords.contains(key);
+            indexes.deletionIndex.add(key);
+            indexes.qgramIndex.add(key);
+            indexes.phoneticIndex.add(key);
+            indexes.prefixTrie.add(key, completionWeight(key, common));
+            indexes.headwordColumns.add(key);
+            term = indexes.addTerm(key, common, AppendOnlyIntArray.of(id));
+        } else {
+            if (!term.ids.contains(id)) {
+                // 修改词条时编号不变，改回原词头时编号已在其中
+                term.ids = term.ids.append(id);
+            }
+            // 词头的词条全部删除后已从前缀树中移除；已存在时忽略
+            indexes.prefixTrie.add(key, completionWeight(key, term.common));
+        }
+        // 存储编号按加入顺序分配，与 entryTerms 的下标一致
+        indexes.entryTerms = indexes.entryTerms.append(term.id);
+        indexes.translationIndex.add(id, entry, word);
+    }
+
+    /**
+     * 按词头精确查找（忽略大小写），返回第一个匹配的词条的存储编号，没有时返回 -1
+     */
+    private static int lookupHeadword(Snapshot snapshot, String headword) {
+        Term term = snapshot.indexes.headwords.get(foldHeadword(headword));
+        return term == null ? -1 : firstEntry(snapshot, term);
+    }
+
+    /**
+     * 该版本中词头为 term 的第一个词条的存储编号，没有时返回 -1
+     * 编号可能已被删除，或已修改为其他词头，按存储编号的词头编号判断，不读取词头
+     */
+    private static int firstEntry(Snapshot snapshot, Term term) {
+        AppendOnlyIntArray ids = term.ids;
+        AppendOnlyIntArray entryTerms = snapshot.indexes.entryTerms;
+        for (int i = 0; i < ids.size(); i++) {
+            int entry = snapshot.entryAt(ids.get(i));
+            if (entry != -1 && entryTerms.get(entry) == term.id) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 前缀补全：返回词头以 prefix 开头的词条（忽略大小写），常用词和较短的词在前
+     */
+    public List<Word> findCompletions(String prefix) {
+        List<Word> result = new ArrayList<>();
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return result;
+        }
+        BinaryDictionaryFile file = opened;
+        if (file != null) {
+            return file.complete(prefix.trim(), MAX_COMPLETIONS);
+        }
+        Snapshot snapshot = current;
+        for (String term : snapshot.indexes.prefixTrie.complete(foldHeadword(prefix.trim()), MAX_COMPLETIONS)) {
+            for (int entry : entriesOf(snapshot, Collections.singletonList(term))) {
+                if (result.size() >= MAX_COMPLETIONS) {
+                    return result;
+                }
+                result.add(snapshot.store.getWord(entry));
+            }
+        }
+        return result;
+    }
+
+    private static String foldHeadword(String headword) {
+        return headword.toLowerCase();
+    }
+
+    /**
+     * 相似度缓存的命中次数（自当前词条表建立以来）
+     */
+    public long getSimilarityCacheHits() {
+        return current.indexes.similarityMemo.getHits();
+    }
+
+    /**
+     * 相似度缓存的未命中次数（自当前词条表建立以来）
+     */
+    public long getSimilarityCacheMisses() {
+        return current.indexes.similarityMemo.getMisses();
+    }
+
+    /**
+     * 查询缓存的命中次数
+     */
+    public long getQueryCacheHits() {
+        return queryCache.getHitCount();
+    }
+
+    /**
+     * 查询缓存的未命中次数
+     */
+    public long getQueryCacheMisses() {
+        return queryCache.getMissCount();
+    }
+
+    /**
+     * 查询缓存因容量不足淘汰的条目数
+     */
+    public long getQueryCacheEvictions() {
+        return queryCache.getEvictionCount();
+    }
+
     private void clearCache() {
-        queryCache.clear();
-        similarityCache.clear();
-        cacheAccessTime.clear();
+        queryCache.invalidateAll();
     }
 
-    private String createCacheKey(String text, boolean isEnglishToChinese) {
-        return text + "|" + isEnglishToChinese;
+    /**
+     * 单个词条增删改后，只移除结果可能因此变化的缓存查询
+     */
+    private void invalidateCache(Word word) {
+        queryCache.invalidateIf((key, entry) -> isAffected(key, entry, word));
+    }
+
+    /**
+     * 判断词条的加入或移除是否可能改变缓存的查询结果：
+     * 词条在结果中、结果来自全量扫描或批量预筛选，或者词条会成为该查询的精确命中或候选
+     */
+    private boolean isAffected(CacheKey key, CachedResult entry, Word word) {
+        Indexes indexes = current.indexes;
+        if (entry.global || entry.results.contains(word)) {
+            return true;
+        }
+        if (!key.englishToChinese) {
+            return TranslationIndex.matches(word, key.text);
+        }
+        String term = word.getFoldedWord();
+        if (term.equals(key.text) || entry.variants.contains(term)) {
+            return true;
+        }
+        if (key.exact) {
+            return false;
+        }
+        return indexes.deletionIndex.matches(term, key.text)
+                || indexes.qgramIndex.matches(term, entry.query)
+                || indexes.phoneticIndex.matches(term, entry.query.getPhoneticCode());
+    }
+
+    /**
+     * 缓存键：查询类型、方向和规范化后的查询文本（去除首尾空白，英译中另做大小写折叠）
+     */
+    private static String normalizeQuery(String text, boolean isEnglishToChinese) {
+        String trimmed = text.trim();
+        return isEnglishToChinese ? foldHeadword(trimmed) : trimmed;
     }
 
     /**
@@ -95,19 +603,27 @@ public class Dictionary {
      * @return 单词列表的副本
      */
     public List<Word> getAllWords() {
-        return new ArrayList<>(words);
+        BinaryDictionaryFile file = opened;
+        return new ArrayList<>(file != null ? file.asList() : current.liveWords());
     }
 
-    public Word search(String text, boolean isEnglishToChinese) {
-        String cacheKey = createCacheKey(text, isEnglishToChinese);
-        List<Word> cachedResults = queryCache.get(cacheKey);
+    public Word search(String input, boolean isEnglishToChinese) {
+        String text = normalizeQuery(input, isEnglishToChinese);
+        BinaryDictionaryFile file = opened;
+        if (file != null) {
+            // 索引尚未建立：只支持英文词头精确查找，结果不缓存
+            return isEnglishToChinese ? file.find(text) : null;
+        }
+        Snapshot snapshot = current;
+        CacheKey cacheKey = new CacheKey(true, isEnglishToChinese, text);
+        CachedResult cached = queryCache.get(cacheKey);
         
-        if (cachedResults != null && !cachedResults.isEmpty()) {
-            updateCacheAccessTime(cacheKey);
-            return cachedResults.get(0);
+        if (cached != null) {
+            return cached.results.isEmpty() ? null : cached.results.get(0);
         }
 
         Word result = null;
+        Set<String> foldedVariants = Collections.emptySet();
         if (isEnglishToChinese) {
             // 获取所有可能的词形和拼写变体
             Set<String> wordForms = WordFormUtil.getAllWordForms(text);
@@ -116,49 +632,57 @@ public class Dictionary {
             allVariants.addAll(wordForms);
             allVariants.addAll(spellingVariants);
             
-            // 尝试匹配每一个变体
+            // 尝试匹配每一个变体（哈希索引，每次探测 O(1)）
             for (String variant : allVariants) {
-                result = words.stream()
-                        .filter(word -> word.getWord().equalsIgnoreCase(variant))
-                        .findFirst()
-                        .orElse(null);
-                if (result != null) break;
+                int entry = lookupHeadword(snapshot, variant);
+                if (entry != -1) {
+                    result = snapshot.store.getWord(entry);
+                    break;
+                }
             }
+            foldedVariants = foldAll(allVariants);
         } else {
-            result = words.stream()
-                    .filter(word -> simplifyTranslation(word.getTranslation()).equalsIgnoreCase(text))
-                    .findFirst()
-                    .orElse(null);
+            // 整条释义与查询相同的词条必然只有一个义项且与查询相同，只需检查该义项的倒排表
+            for (TranslationIndex.Posting posting : snapshot.indexes.translationIndex.lookupMeaning(text)) {
+                if (posting.isWholeTranslation() && snapshot.isVisible(posting)) {
+                    result = snapshot.store.getWord(posting.getEntry());
+                    break;
+                }
+            }
         }
 
-        if (result != null) {
-            queryCache.put(cacheKey, Collections.singletonList(result));
-            updateCacheAccessTime(cacheKey);
-        }
+        // 未找到也缓存，之后加入的词条若能命中会使其失效
+        List<Word> results = result != null ? Collections.singletonList(result) : Collections.emptyList();
+        cacheResult(snapshot, cacheKey, new CachedResult(results, false, null, foldedVariants));
 
         return result;
     }
 
-    public List<Word> findSimilarWords(String text, boolean isEnglishToChinese) {
-        String cacheKey = createCacheKey(text, isEnglishToChinese);
+    public List<Word> findSimilarWords(String input, boolean isEnglishToChinese) {
+        String text = normalizeQuery(input, isEnglishToChinese);
+        BinaryDictionaryFile file = opened;
+        if (file != null) {
+            return findInOpenedFile(file, text, isEnglishToChinese);
+        }
+        Snapshot snapshot = current;
+        CacheKey cacheKey = new CacheKey(false, isEnglishToChinese, text);
         
         // 检查缓存
-        List<Word> cachedResults = queryCache.get(cacheKey);
-        if (cachedResults != null) {
-            updateCacheAccessTime(cacheKey);
-            return new ArrayList<>(cachedResults);
+        CachedResult cached = queryCache.get(cacheKey);
+        if (cached != null) {
+            return new ArrayList<>(cached.results);
         }
 
+        EntryStore store = snapshot.store;
         List<Word> results;
+        CachedResult entry;
         if (isEnglishToChinese) {
             // 1. 首先尝试精确匹配
-            Word exactMatch = words.parallelStream()
-                    .filter(word -> word.getWord().equalsIgnoreCase(text))
-                    .findFirst()
-                    .orElse(null);
+            int exactMatch = lookupHeadword(snapshot, text);
             
-            if (exactMatch != null) {
-                results = Collections.singletonList(exactMatch);
+            if (exactMatch != -1) {
+                results = Collections.singletonList(store.getWord(exactMatch));
+                entry = new CachedResult(results, false, FuzzyMatchUtil.prepare(text), Collections.emptySet());
             } else {
                 // 2. 生成并缓存词形变化和拼写变体
                 final Set<String> wordForms = WordFormUtil.getAllWordForms(text);
@@ -167,161 +691,284 @@ public class Dictionary {
                 allVariants.addAll(wordForms);
                 allVariants.addAll(spellingVariants);
                 
-                // 3. 使用并行流进行相似度计算
-                results = words.parallelStream()
-                        .map(word -> {
-                            double maxSimilarity = 0.0;
-                            // 首先检查原始输入
-                            String similarityKey = word.getWord() + "|" + text;
-                            Double cachedSimilarity = similarityCache.get(similarityKey);
-                            
-                            if (cachedSimilarity != null) {
-                                maxSimilarity = cachedSimilarity;
-                            } else {
-                                maxSimilarity = FuzzyMatchUtil.calculateSimilarity(word.getWord(), text);
-                                similarityCache.put(similarityKey, maxSimilarity);
-                            }
-                            
-                            // 检查词形变化和拼写变体
-                            final String wordLower = word.getWord().toLowerCase();
-                            if (allVariants.contains(wordLower)) {
-                                maxSimilarity = 1.0; // 完全匹配
-                            } else {
-                                // 只在相似度较高时才进行详细比较
-                                if (maxSimilarity > 0.5) {
-                                    for (String variant : allVariants) {
-                                        similarityKey = word.getWord() + "|" + variant;
-                                        cachedSimilarity = similarityCache.get(similarityKey);
-                                        
-                                        double similarity;
-                                        if (cachedSimilarity != null) {
-                                            similarity = cachedSimilarity;
-                                        } else {
-                                            similarity = FuzzyMatchUtil.calculateSimilarity(word.getWord(), variant);
-                                            similarityCache.put(similarityKey, similarity);
-                                        }
-                                        
-                                        // 应用权重
-                                        if (word.getWord().equalsIgnoreCase(variant)) {
-                                            similarity *= 128;
-                                        } else if (word.getWord().split("[,;]")[0].equalsIgnoreCase(variant)) {
-                                            similarity *= 64;
-                                        }
-                                        
-                                        if (commonWords.contains(wordLower)) {
-                                            similarity *= 16;
-                                        }
-                                        
-                                        if (isBasicWord(word.getWord())) {
-                                            similarity *= 32;
-                                        }
-                                        
-                                        maxSimilarity = Math.max(maxSimilarity, similarity);
-                                    }
-                                }
-                            }
-                            
-                            return new AbstractMap.SimpleEntry<>(word, maxSimilarity);
-                        })
-                        .filter(entry -> entry.getValue() > 0.01)
-                        .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                        .map(AbstractMap.SimpleEntry::getKey)
-                        .distinct()
-                        .limit(24)
-                        .collect(Collectors.toList());
+                // 3. 通过删除邻域、q-gram 和音素索引生成候选词条，只对候选计算相似度；
+                //    无候选时对按列存储的词头批量预筛选，仍无结果才退回全量扫描
+                FuzzyMatchUtil.Query query = FuzzyMatchUtil.prepare(text);
+                Indexes indexes = snapshot.indexes;
+                Map<String, Double> qgramScores = indexes.qgramIndex.lookup(query);
+                int[] candidates = collectFuzzyCandidates(snapshot, query, allVariants, qgramScores.keySet());
+                boolean bulk = candidates.length == 0;
+                if (bulk) {
+                    candidates = entriesOf(snapshot, indexes.headwordColumns.filter(query));
+                }
+                int[] source = candidates.length == 0 ? snapshot.liveEntries() : candidates;
+                // 相似度缓存的查询键每次查询只算一次
+                long queryHash = SimilarityMemo.hashQuery(query.getText());
+                String[] variants = allVariants.toArray(new String[0]);
+                long[] variantHashes = new long[variants.length];
+                for (int i = 0; i < variants.length; i++) {
+                    variantHashes[i] = SimilarityMemo.hashQuery(variants[i].toLowerCase());
+                }
+                // 词头即为某个变体的词条，按存储编号排序后二分查找，打分时无需读取词头
+                int[] variantEntries = entriesOf(snapshot, foldAll(allVariants));
+                Arrays.sort(variantEntries);
+                results = selectTop(store, source,
+                        i -> scoreHeadword(source[i], indexes, query, queryHash, qgramScores,
+                                variantEntries, variants, variantHashes),
+                        0.01, bulk);
+                entry = new CachedResult(results, bulk, query, foldAll(allVariants));
             }
         } else {
-            results = words.stream()
-                    .map(word -> {
-                        String searchText = simplifyTranslation(word.getTranslation());
-                        double similarity = FuzzyMatchUtil.calculateSimilarity(searchText, text);
-                        
-                        // 检查是否为主要含义（第一个翻译）
-                        String[] meanings = searchText.split("[,;]");
-                        String primaryMeaning = meanings[0].trim();
-                        
-                        // 完全匹配时给予超高权重
-                        if (primaryMeaning.equalsIgnoreCase(text)) {
-                            similarity *= 256;  // 大幅提高主要含义完全匹配的权重
-                        }
-                        
-                        // 检查每个翻译是否完全匹配
-                        boolean hasExactMatch = false;
-                        for (int i = 0; i < meanings.length; i++) {
-                            String meaning = meanings[i].trim();
-                            if (meaning.equalsIgnoreCase(text)) {
-                                // 根据位置给予不同的权重，越靠前权重越高
-                                similarity *= (128.0 / (i + 1));  // 第一个翻译128x，第二个64x，第三个42.7x...
-                                hasExactMatch = true;
-                                break;
-                            }
-                        }
-                        
-                        // 增加常用词的权重
-                        if (commonWords.contains(word.getWord().toLowerCase())) {
-                            similarity *= 16;  // 提高常用词的权重
-                        }
-                        
-                        // 特殊处理基础词汇
-                        if (isBasicWord(text)) {
-                            if (primaryMeaning.equalsIgnoreCase(text)) {
-                                similarity *= 512;  // 基础词汇完全匹配给予超高权重
-                            } else if (hasExactMatch) {
-                                similarity *= 128;  // 基础词汇其他位置匹配也给予较高权重
-                            } else {
-                                // 对于基础词汇的衍生义，适度降低权重
-                                similarity *= 0.1;  // 降低但不要太过严厉
-                            }
-                        }
-                        
-                        // 如果是单字词，进一步调整权重
-                        if (text.length() == 1 && isCJK(text.charAt(0))) {
-                            if (primaryMeaning.equalsIgnoreCase(text)) {
-                                similarity *= 1024;  // 单字词完全匹配给予最高权重
-                            } else if (hasExactMatch) {
-                                similarity *= 256;  // 单字词其他位置匹配也给予较高权重
-                            } else {
-                                // 单字词的衍生义权重适度降低
-                                similarity *= 0.1;  // 降低但不要太过严厉
-                            }
-                        }
-                        
-                        return new AbstractMap.SimpleEntry<>(word, similarity);
-                    })
-                    .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                    .filter(entry -> entry.getValue() > 0.001)
-                    .map(AbstractMap.SimpleEntry::getKey)
-                    .distinct()
-                    .limit(24)
-                    .collect(Collectors.toList());
+            // 通过释义倒排索引生成候选，并得到义项完全命中的位置；无候选时退回全量扫描
+            List<TranslationIndex.Posting> candidates =
+                    snapshot.indexes.translationIndex.lookup(text, snapshot::isVisible);
+            // 与词头相似度共用缓存，取反与英译中查询的键区分
+            long queryHash = ~SimilarityMemo.hashQuery(text);
+            if (candidates.isEmpty()) {
+                int[] all = snapshot.liveEntries();
+                results = selectTop(store, all, i -> scoreTranslation(snapshot, all[i], -1, text, queryHash),
+                        0.001, true);
+                entry = new CachedResult(results, true, null, Collections.emptySet());
+            } else {
+                int[] source = new int[candidates.size()];
+                for (int i = 0; i < source.length; i++) {
+                    source[i] = candidates.get(i).getEntry();
+                }
+                results = selectTop(store, source,
+                        i -> scoreTranslation(snapshot, source[i], candidates.get(i).getPosition(), text, queryHash),
+                        0.001, false);
+                entry = new CachedResult(results, false, null, Collections.emptySet());
+            }
         }
 
         // 缓存结果
-        if (!results.isEmpty()) {
-            queryCache.put(cacheKey, new ArrayList<>(results));
-            updateCacheAccessTime(cacheKey);
+        cacheResult(snapshot, cacheKey, entry);
+
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * 索引建立前的查询：英文词头精确匹配，否则按前缀补全；中译英需要释义索引，返回空列表
+     */
+    private static List<Word> findInOpenedFile(BinaryDictionaryFile file, String text, boolean isEnglishToChinese) {
+        if (!isEnglishToChinese || text.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Word exactMatch = file.find(text);
+        if (exactMatch != null) {
+            return new ArrayList<>(Collections.singletonList(exactMatch));
         }
+        return file.complete(text, MAX_RESULTS);
+    }
 
-        return results;
+    /**
+     * 缓存按 snapshot 算出的结果
+     * 修改操作先发布新版本再使缓存失效；写入后若发现版本已变，失效可能已经错过这条结果，需自行移除
+     */
+    private void cacheResult(Snapshot snapshot, CacheKey key, CachedResult entry) {
+        queryCache.put(key, entry);
+        if (current.version != snapshot.version) {
+            queryCache.remove(key, entry);
+        }
     }
 
-    private synchronized void updateCacheAccessTime(String key) {
-        cacheAccessTime.put(key, System.currentTimeMillis());
+    /**
+     * 按分数从存储编号 source 中选出前 MAX_RESULTS 个不重复的词条，分数相同时保持 source 中的顺序
+     * 重复词条会占用名额，去重后不足时扩大 K 重新选择
+     */
+    private List<Word> selectTop(EntryStore store, int[] source, IntToDoubleFunction scorer, double minScore,
+                                 boolean parallel) {
+        int k = MAX_RESULTS;
+        while (true) {
+            int[] selected = TopKSelector.select(source.length, scorer, minScore, k, parallel);
+            Set<Word> results = new LinkedHashSet<>();
+            for (int index : selected) {
+                results.add(store.getWord(source[index]));
+                if (results.size() == MAX_RESULTS) break;
+            }
+            if (results.size() == MAX_RESULTS || selected.length < k) {
+                return new ArrayList<>(results);
+            }
+            k *= 2;
+        }
+    }
+
+    /**
+     * 计算词条释义与查询词的相似度
+     * 释义相似度按 (存储编号, queryHash) 缓存，命中时不读取释义；与 scoreHeadword 相同，按 float 精度计算
+     * @param exactPosition 第一个与查询完全相同的义项位置，没有则为 -1
+     */
+    private double scoreTranslation(Snapshot snapshot, int entry, int exactPosition, String text, long queryHash) {
+        SimilarityMemo memo = snapshot.indexes.similarityMemo;
+        float cachedSimilarity = memo.get(entry, queryHash);
+        if (Float.isNaN(cachedSimilarity)) {
+            cachedSimilarity = (float) FuzzyMatchUtil.calculateSimilarity(
+                    snapshot.store.getSimplifiedTranslation(entry), text);
+            memo.put(entry, queryHash, cachedSimilarity);
+        }
+        double similarity = cachedSimilarity;
         
-        // 如果缓存超过最大大小，移除最旧的条目
-        while (queryCache.size() > MAX_CACHE_SIZE) {
-            String oldestKey = cacheAccessTime.keySet().iterator().next();
-            queryCache.remove(oldestKey);
-            similarityCache.remove(oldestKey);
-            cacheAccessTime.remove(oldestKey);
+        // 检查是否为主要含义（第一个翻译）
+        boolean primaryMatch = exactPosition == 0;
+        boolean hasExactMatch = exactPosition >= 0;
+        
+        // 完全匹配时给予超高权重
+        if (primaryMatch) {
+            similarity *= 256;  // 大幅提高主要含义完全匹配的权重
         }
+        
+        // 根据位置给予不同的权重，越靠前权重越高
+        if (hasExactMatch) {
+            similarity *= (128.0 / (exactPosition + 1));  // 第一个翻译128x，第二个64x，第三个42.7x...
+        }
+        
+        // 增加常用词的权重
+        if (snapshot.indexes.termOf(entry).common) {
+            similarity *= 16;  // 提高常用词的权重
+        }
+        
+        // 特殊处理基础词汇
+        if (isBasicWord(text)) {
+            if (primaryMatch) {
+                similarity *= 512;  // 基础词汇完全匹配给予超高权重
+            } else if (hasExactMatch) {
+                similarity *= 128;  // 基础词汇其他位置匹配也给予较高权重
+            } else {
+                // 对于基础词汇的衍生义，适度降低权重
+                similarity *= 0.1;  // 降低但不要太过严厉
+            }
+        }
+        
+        // 如果是单字词，进一步调整权重
+        if (text.length() == 1 && isCJK(text.charAt(0))) {
+            if (primaryMatch) {
+                similarity *= 1024;  // 单字词完全匹配给予最高权重
+            } else if (hasExactMatch) {
+                similarity *= 256;  // 单字词其他位置匹配也给予较高权重
+            } else {
+                // 单字词的衍生义权重适度降低
+                similarity *= 0.1;  // 降低但不要太过严厉
+            }
+        }
+        
+        return similarity;
     }
 
-    private String simplifyTranslation(String translation) {
-        return translation.replaceAll("\\([^)]*\\)", "")
-                         .replaceAll("\\[[^]]*\\]", "")
-                         .replaceAll("\\b\\w+\\.(?=\\s)", "")
-                         .trim();
+    /**
+     * 计算词条与查询词（含词形变化和拼写变体）的相似度
+     * 相似度缓存按 (存储编号, 小写查询文本的哈希) 存取；缓存值为 float，未命中时也按 float
+     * 精度返回，保证结果与缓存状态无关。词头取自索引中的小写词头，不读取词条存储
+     * @param variantEntries 词头即为某个变体的词条的存储编号，已排序
+     */
+    private double scoreHeadword(int entry, Indexes indexes, FuzzyMatchUtil.Query query,
+                                 long queryHash, Map<String, Double> qgramScores, int[] variantEntries,
+                                 String[] variants, long[] variantHashes) {
+        SimilarityMemo memo = indexes.similarityMemo;
+        // 检查词形变化和拼写变体
+        if (Arrays.binarySearch(variantEntries, entry) >= 0) {
+            return 1.0; // 完全匹配
+        }
+
+        double maxSimilarity;
+        Term term = indexes.termOf(entry);
+        String wordLower = term.text;
+        // 首先检查原始输入
+        float cachedSimilarity = memo.get(entry, queryHash);
+        
+        if (!Float.isNaN(cachedSimilarity)) {
+            maxSimilarity = cachedSimilarity;
+        } else {
+            // 复用索引中的音素编码；q-gram 候选直接使用索引算好的 q-gram 相似度，其余在单遍计算中一并得出
+            Double qgramSim = qgramScores.get(wordLower);
+            String wordCode = indexes.phoneticIndex.codeOf(wordLower);
+            float similarity = (float) (qgramSim != null
+                    ? FuzzyMatchUtil.calculateSimilarity(wordLower, wordCode, query, qgramSim)
+                    : FuzzyMatchUtil.calculateSimilarity(wordLower, wordCode, query));
+            memo.put(entry, queryHash, similarity);
+            maxSimilarity = similarity;
+        }
+        
+        // 只在相似度较高时才进行详细比较
+        if (maxSimilarity > 0.5) {
+            // 以下比较均忽略大小写，使用小写词头结果相同
+            String primaryWord = wordLower.split("[,;]")[0];
+            for (int v = 0; v < variants.length; v++) {
+                String variant = variants[v];
+                cachedSimilarity = memo.get(entry, variantHashes[v]);
+                if (Float.isNaN(cachedSimilarity)) {
+                    cachedSimilarity = (float) FuzzyMatchUtil.calculateSimilarity(wordLower, variant);
+                    memo.put(entry, variantHashes[v], cachedSimilarity);
+                }
+                double similarity = cachedSimilarity;
+                
+                // 应用权重
+                if (wordLower.equalsIgnoreCase(variant)) {
+                    similarity *= 128;
+                } else if (primaryWord.equalsIgnoreCase(variant)) {
+                    similarity *= 64;
+                }
+                
+                if (term.common) {
+                    similarity *= 16;
+                }
+                
+                if (isBasicWord(wordLower)) {
+                    similarity *= 32;
+                }
+                
+                maxSimilarity = Math.max(maxSimilarity, similarity);
+            }
+        }
+        
+        return maxSimilarity;
+    }
+
+    /**
+     * 收集模糊查询的候选词条（存储编号）：删除邻域内的词头、q-gram 重叠足够的词头、音素编码相同的词头
+     * 以及精确命中的词形/拼写变体
+     */
+    private static int[] collectFuzzyCandidates(Snapshot snapshot, FuzzyMatchUtil.Query query,
+                                                     Set<String> allVariants, Set<String> qgramTerms) {
+        Indexes indexes = snapshot.indexes;
+        Set<String> terms = indexes.deletionIndex.lookup(query.getText());
+        terms.addAll(qgramTerms);
+        terms.addAll(indexes.phoneticIndex.lookup(query.getPhoneticCode()));
+        for (String variant : allVariants) {
+            String term = foldHeadword(variant);
+            if (indexes.headwords.containsKey(term)) {
+                terms.add(term);
+            }
+        }
+        return entriesOf(snapshot, terms);
+    }
+
+    /**
+     * 将词头映射为该版本中对应的全部词条的存储编号
+     */
+    private static int[] entriesOf(Snapshot snapshot, Collection<String> terms) {
+        IntStream.Builder result = IntStream.builder();
+        AppendOnlyIntArray entryTerms = snapshot.indexes.entryTerms;
+        for (String key : terms) {
+            Term term = snapshot.indexes.headwords.get(key);
+            if (term == null) continue;
+            AppendOnlyIntArray ids = term.ids;
+            for (int i = 0; i < ids.size(); i++) {
+                // 编号可能已被删除，或已修改为其他词头
+                int entry = snapshot.entryAt(ids.get(i));
+                if (entry != -1 && entryTerms.get(entry) == term.id) {
+                    result.add(entry);
+                }
+            }
+        }
+        return result.build().toArray();
+    }
+
+    private static Set<String> foldAll(Set<String> variants) {
+        Set<String> folded = new HashSet<>(variants.size() * 2);
+        for (String variant : variants) {
+            folded.add(foldHeadword(variant));
+        }
+        return folded;
     }
 
     // 判断是否为基础词汇
@@ -362,6 +1009,235 @@ public class Dictionary {
             || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
             || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B;
     }
-}
 
+    /**
+     * 查询缓存的键
+     */
+    private static final class CacheKey {
+        // true 为 search 的精确查询，false 为 findSimilarWords 的相似词查询
+        private final boolean exact;
+        private final boolean englishToChinese;
+        private final String text;
+
+        CacheKey(boolean exact, boolean englishToChinese, String text) {
+            this.exact = exact;
+            this.englishToChinese = englishToChinese;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return exact == other.exact && englishToChinese == other.englishToChinese && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return (text.hashCode() * 31 + (exact ? 1 : 0)) * 31 + (englishToChinese ? 1 : 0);
+        }
+    }
+
+    /**
+     * 缓存的查询结果，以及判断词条变动是否影响该结果所需的信息
+     */
+    private static final class CachedResult {
+        private final List<Word> results;
+        // 结果来自全量扫描或批量预筛选，任何词条变动都可能影响
+        private final boolean global;
+        // 英译中模糊查询的预处理结果，用于判断新词头是否会成为候选
+        private final FuzzyMatchUtil.Query query;
+        // 英译中查询的词形变化和拼写变体（已折叠大小写）
+        private final Set<String> variants;
+
+        CachedResult(List<Word> results, boolean global, FuzzyMatchUtil.Query query, Set<String> variants) {
+            this.results = Collections.unmodifiableList(new ArrayList<>(results));
+            this.global = global;
+            this.query = query;
+            this.variants = variants;
+        }
+    }
+
+    /**
+     * 词条表中一个编号的一个版本；修改产生的新版本指向旧版本
+     */
+    private static final class Slot {
+        // 该版本的文本在 EntryStore 中的存储编号
+        private final int entry;
+        // 创建该版本的词典版本号
+        private final long created;
+        private final Slot previous;
+        // 删除或被替换时的词典版本号
+        private volatile long deleted = Long.MAX_VALUE;
+
+        Slot(int entry, long created, Slot previous) {
+            this.entry = entry;
+            this.created = created;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * 词头索引、模糊查询索引和释义索引
+     * 各索引只追加且可在写入的同时被查询，多个版本共用，查询按版本过滤其中的词条
+     */
+    private static final class Indexes {
+        // 小写词头 -> 词头
+        private final Map<String, Term> headwords = new ConcurrentHashMap<>();
+        // 词头编号 -> 词头
+        private volatile AppendOnlyArray<Term> terms = AppendOnlyArray.empty();
+        // 存储编号 -> 词头编号，随词条存储一同追加；查询比较词头编号而不读取词头
+        private volatile AppendOnlyIntArray entryTerms = AppendOnlyIntArray.wrap(new int[0]);
+        // 删除邻域索引，用于模糊查询的候选生成
+        private final DeletionIndex deletionIndex;
+        // bigram 倒排索引，用于模糊查询的候选生成和 q-gram 相似度
+        private final QGramIndex qgramIndex = new QGramIndex();
+        // 音素编码索引，用于读音相近的候选和音素相似度
+        private final PhoneticIndex phoneticIndex;
+        // 相似度缓存，按本词条表的存储编号存取，随词条表一同重建
+        private final SimilarityMemo similarityMemo = new SimilarityMemo(SIMILARITY_MEMO_CAPACITY);
+        // 词头前缀树，用于输入时的自动补全
+        private final PrefixTrie prefixTrie = new PrefixTrie(MAX_COMPLETIONS);
+        // 按列存储的词头特征，索引无候选时用于批量预筛选
+        private final HeadwordColumns headwordColumns = new HeadwordColumns();
+        // 释义倒排索引，用于中译英查询
+        private final TranslationIndex translationIndex = new TranslationIndex();
+
+        Indexes() {
+            this(new DeletionIndex(), new PhoneticIndex());
+        }
+
+        Indexes(DeletionIndex deletionIndex, PhoneticIndex phoneticIndex) {
+            this.deletionIndex = deletionIndex;
+            this.phoneticIndex = phoneticIndex;
+        }
 
+        /**
+         * 加入新的词头，编号按加入顺序分配
+         */
+        Term addTerm(String text, boolean common, AppendOnlyIntArray ids) {
+            Term term = new Term(terms.size(), text, common, ids);
+            terms = terms.append(term);
+            headwords.put(text, term);
+            return term;
+        }
+
+        /**
+         * 存储编号对应词条的词头；该编号必须已经发布
+         */
+        Term termOf(int entry) {
+            return terms.get(entryTerms.get(entry));
+        }
+    }
+
+    /**
+     * 一个小写词头：编号、是否为常用词，以及曾以它为词头的词条编号（保持加入顺序）
+     * 各索引共用同一个词头字符串
+     */
+    private static final class Term {
+        private final int id;
+        private final String text;
+        private final boolean common;
+        // 只由写入线程替换；编号可能已被删除或修改为其他词头，查询时按 entryTerms 过滤
+        private volatile AppendOnlyIntArray ids;
+
+        Term(int id, String text, boolean common, AppendOnlyIntArray ids) {
+            this.id = id;
+            this.text = text;
+            this.common = common;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * 词典的一个版本，创建后不再改变
+     * 编号小于 highWater 的词条中，created <= version < deleted 的版本对该版本可见。
+     * 词条表中为 null 的编号是建立词条表时加入、之后未改动的词条：存储编号与词条编号相同，版本号为 baseVersion。
+     * 之后的修改只会追加新编号、在版本链头部加入新版本或标记删除，都不影响该版本看到的内容。
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final int highWater;
+        private final Slot[] slots;
+        // 词条文本，与词条表一起建立，多个版本共用
+        private final EntryStore store;
+        // 建立词条表时的版本号
+        private final long baseVersion;
+        private final Indexes indexes;
+        private final int liveCount;
+        private final int englishCount;
+        // 被删除或替换的旧版本数
+        private final int garbage;
+        // 按编号顺序排列的存活词条的存储编号，首次需要时生成
+        private volatile int[] liveEntries;
+
+        Snapshot(long version, int highWater, Slot[] slots, EntryStore store, long baseVersion, Indexes indexes,
+                 int liveCount, int englishCount, int garbage) {
+            this.version = version;
+            this.highWater = highWater;
+            this.slots = slots;
+            this.store = store;
+            this.baseVersion = baseVersion;
+            this.indexes = indexes;
+            this.liveCount = liveCount;
+            this.englishCount = englishCount;
+            this.garbage = garbage;
+        }
+
+        /**
+         * 该版本中编号对应的词条的存储编号，不存在或已删除时返回 -1
+         */
+        int entryAt(int id) {
+            if (id >= highWater) {
+                return -1;
+            }
+            Slot slot = slots[id];
+            if (slot == null) {
+                return id;
+            }
+            while (slot != null && slot.created > version) {
+                slot = slot.previous;
+            }
+            return slot != null && slot.deleted > version ? slot.entry : -1;
+        }
+
+        boolean isVisible(TranslationIndex.Posting posting) {
+            return entryAt(posting.getId()) == posting.getEntry();
+        }
+
+        int[] liveEntries() {
+            int[] result = liveEntries;
+            if (result == null) {
+                result = new int[liveCount];
+                int size = 0;
+                for (int id = 0; id < highWater; id++) {
+                    int entry = entryAt(id);
+                    if (entry != -1) {
+                        result[size++] = entry;
+                    }
+                }
+                liveEntries = result;
+            }
+            return result;
+        }
+
+        /**
+         * 按编号顺序排列的存活词条，访问时才创建词条对象
+         */
+        List<Word> liveWords() {
+            int[] live = liveEntries();
+            return new AbstractList<Word>() {
+                @Override
+                public Word get(int index) {
+                    return store.getWord(live[index]);
+                }
+
+                @Override
+                public int size() {
+                    return live.length;
+                }
+            };
+        }
+    }
+}
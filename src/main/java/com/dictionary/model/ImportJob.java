@@ -0,0 +1,143 @@
+package com.dictionary.model;
+
+import java.time.LocalDateTime;
+
+public class ImportJob {
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    // Unfinished job the user chose not to resume
+    public static final String STATUS_DISCARDED = "DISCARDED";
+
+    private Long id;
+    private Long dictionaryId; // null for the main dictionary file
+    private String sourcePath;
+    private long sourceSize;
+    private long sourceModified;
+    private String status;
+    private long committedBatch = -1; // id of the last committed batch, -1 if none
+    private long sourceWords; // words read from the source up to the committed batch
+    private long wordsWritten;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public ImportJob() {
+    }
+
+    public ImportJob(Long dictionaryId, String sourcePath, long sourceSize, long sourceModified) {
+        this.dictionaryId = dictionaryId;
+        this.sourcePath = sourcePath;
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.status = STATUS_RUNNING;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Whether the job can be resumed: not finished and with the source unchanged since it started
+     */
+    public boolean isResumable(long size, long modified) {
+        return !STATUS_COMPLETED.equals(status) && !STATUS_DISCARDED.equals(status)
+                && sourceSize == size && sourceModified == modified;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDictionaryId() {
+        return dictionaryId;
+    }
+
+    public void setDictionaryId(Long dictionaryId) {
+        this.dictionaryId = dictionaryId;
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    public void setSourceSize(long sourceSize) {
+        this.sourceSize = sourceSize;
+    }
+
+    public long getSourceModified() {
+        return sourceModified;
+    }
+
+    public void setSourceModified(long sourceModified) {
+        this.sourceModified = sourceModified;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getCommittedBatch() {
+        return committedBatch;
+    }
+
+    public void setCommittedBatch(long committedBatch) {
+        this.committedBatch = committedBatch;
+    }
+
+    public long getSourceWords() {
+        return sourceWords;
+    }
+
+    public void setSourceWords(long sourceWords) {
+        this.sourceWords = sourceWords;
+    }
+
+    public long getWordsWritten() {
+        return wordsWritten;
+    }
+
+    public void setWordsWritten(long wordsWritten) {
+        this.wordsWritten = wordsWritten;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,14 +1,42 @@
 package com.dictionary.model;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
-public class Word {
-    private String word;
-    private String translation;
+/**
+ * 词条，不可变
+ * 小写词头、简化释义、义项和哈希值在构造时计算一次，equals / hashCode 不再执行正则或分配对象。
+ */
+public final class Word {
+    private static final Pattern PARENTHESES = Pattern.compile("\\([^)]*\\)");
+    private static final Pattern BRACKETS = Pattern.compile("\\[[^]]*\\]");
+    private static final Pattern PART_OF_SPEECH = Pattern.compile("\\b\\w+\\.(?=\\s)");
+    private static final Pattern SEPARATOR = Pattern.compile("[,;]");
+
+    private final String word;
+    private final String translation;
+    // 以下均由 word 和 translation 派生
+    private final String foldedWord;
+    private final String simplifiedTranslation;
+    private final String foldedTranslation;
+    private final List<String> meanings;
+    private final int hash;
 
     public Word(String word, String translation) {
         this.word = word;
         this.translation = translation;
+        this.foldedWord = word.toLowerCase();
+        this.simplifiedTranslation = simplifyTranslation(translation);
+        this.foldedTranslation = simplifiedTranslation.toLowerCase();
+        String[] segments = SEPARATOR.split(simplifiedTranslation);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segments[i].trim();
+        }
+        this.meanings = Collections.unmodifiableList(Arrays.asList(segments));
+        this.hash = Objects.hash(foldedWord, foldedTranslation);
     }
 
     public String getWord() {
@@ -19,26 +47,48 @@ public class Word {
         return translation;
     }
 
+    /**
+     * 小写词头
+     */
+    public String getFoldedWord() {
+        return foldedWord;
+    }
+
+    /**
+     * 去掉括号、方括号内容和词性标记后的释义
+     */
+    public String getSimplifiedTranslation() {
+        return simplifiedTranslation;
+    }
+
+    /**
+     * 简化释义按 , ; 切分并去除首尾空白后的义项，按原顺序
+     */
+    public List<String> getMeanings() {
+        return meanings;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Word other = (Word) obj;
-        return word.equalsIgnoreCase(other.word) && 
-               simplifyTranslation(translation).equalsIgnoreCase(simplifyTranslation(other.translation));
+        return hash == other.hash &&
+               foldedWord.equals(other.foldedWord) &&
+               foldedTranslation.equals(other.foldedTranslation);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(word.toLowerCase(), simplifyTranslation(translation).toLowerCase());
+        return hash;
     }
 
-    private String simplifyTranslation(String text) {
+    private static String simplifyTranslation(String text) {
         // 去除括号和方括号中的内容，以及词性部分
-        return text.replaceAll("\\([^)]*\\)", "")  // 移除括号内容
-                  .replaceAll("\\[[^]]*\\]", "")  // 移除方括号内容
-                  .replaceAll("\\b\\w+\\.(?=\\s)", "")  // 移除词性部分
-                  .trim();
+        text = PARENTHESES.matcher(text).replaceAll("");  // 移除括号内容
+        text = BRACKETS.matcher(text).replaceAll("");  // 移除方括号内容
+        text = PART_OF_SPEECH.matcher(text).replaceAll("");  // 移除词性部分
+        return text.trim();
     }
 
     @Override
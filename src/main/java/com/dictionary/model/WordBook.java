@@ -1,5 +1,6 @@
 package com.dictionary.model;
 
+import com.dictionary.util.CsvParser;
 import com.dictionary.util.FileIOUtil;
 import java.util.*;
 import java.io.*;
@@ -18,15 +19,10 @@ public class WordBook {
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+        try {
+            for (String[] parts : CsvParser.parseFile(file.toPath())) {
                 if (parts.length == 2) {
-                    String word = parts[0].replaceAll("^\"|\"$", "");
-                    String translation = parts[1].replaceAll("^\"|\"$", "");
-                    favorites.add(new Word(word, translation));
+                    favorites.add(new Word(parts[0], parts[1]));
                 }
             }
         } catch (IOException e) {
@@ -38,7 +34,7 @@ public class WordBook {
         try (BufferedWriter writer = new BufferedWriter(
                 new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8))) {
             for (Word word : favorites) {
-                writer.write("\"" + word.getWord() + "\",\"" + word.getTranslation() + "\"");
+                writer.write(CsvParser.formatRecord(word.getWord(), word.getTranslation()));
                 writer.newLine();
             }
         } catch (IOException e) {
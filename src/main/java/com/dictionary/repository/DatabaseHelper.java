@@ -85,9 +85,30 @@ public class DatabaseHelper {
                 )
             """);
 
+            // Create import_jobs table: one row per file import, with the checkpoint of the last committed batch.
+            // dictionary_id is NULL for imports into the main dictionary file
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS import_jobs (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    dictionary_id INTEGER,
+                    source_path TEXT NOT NULL,
+                    source_size INTEGER NOT NULL,
+                    source_modified INTEGER NOT NULL,
+                    status TEXT NOT NULL,
+                    committed_batch INTEGER NOT NULL DEFAULT -1,
+                    source_words INTEGER NOT NULL DEFAULT 0,
+                    words_written INTEGER NOT NULL DEFAULT 0,
+                    error TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (dictionary_id) REFERENCES dictionary_metadata(id)
+                )
+            """);
+
             // Create indexes
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_dictionary_words_word ON dictionary_words(word)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_dictionary_words_dict_id ON dictionary_words(dictionary_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_import_jobs_status ON import_jobs(status)");
         }
     }
 
@@ -95,6 +116,26 @@ public class DatabaseHelper {
         return dataSource.getConnection();
     }
 
+    public interface TransactionWork {
+        void execute(Connection conn) throws SQLException;
+    }
+
+    // Runs the work on one connection in a single transaction, rolled back if it throws
+    public void inTransaction(TransactionWork work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                work.execute(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
     public void closePool() {
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
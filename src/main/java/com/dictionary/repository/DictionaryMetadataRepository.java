@@ -15,14 +15,24 @@ public class DictionaryMetadataRepository {
     }
 
     public DictionaryMetadata save(DictionaryMetadata metadata) {
+        try (Connection conn = dbHelper.getConnection()) {
+            return save(conn, metadata);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save dictionary metadata", e);
+        }
+    }
+
+    /**
+     * Inserts the metadata on the given connection, as part of the caller's transaction
+     */
+    public DictionaryMetadata save(Connection conn, DictionaryMetadata metadata) throws SQLException {
         String sql = """
             INSERT INTO dictionary_metadata 
             (name, description, cover_image_path, format, word_count, created_at, updated_at, is_active)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (Connection conn = dbHelper.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, metadata.getName());
             stmt.setString(2, metadata.getDescription());
@@ -47,8 +57,6 @@ public class DictionaryMetadataRepository {
             }
 
             return metadata;
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to save dictionary metadata", e);
         }
     }
 
@@ -118,6 +126,20 @@ public class DictionaryMetadataRepository {
         }
     }
 
+    /**
+     * Adds delta to the word count on the given connection, as part of the caller's transaction
+     */
+    public void addWordCount(Connection conn, Long id, int delta) throws SQLException {
+        String sql = "UPDATE dictionary_metadata SET word_count = word_count + ?, updated_at = ? WHERE id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, delta);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(3, id);
+            stmt.executeUpdate();
+        }
+    }
+
     public void delete(Long id) {
         String sql = "UPDATE dictionary_metadata SET is_active = 0 WHERE id = ?";
         
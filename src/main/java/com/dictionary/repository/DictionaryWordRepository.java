@@ -50,16 +50,27 @@ public class DictionaryWordRepository {
     }
 
     public void saveAll(List<Word> words, Long dictionaryId) {
+        try (Connection conn = dbHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            saveAll(conn, words, dictionaryId);
+            conn.commit();
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save dictionary words batch", e);
+        }
+    }
+
+    /**
+     * Inserts the words on the given connection without committing, as part of the caller's transaction
+     */
+    public void saveAll(Connection conn, List<Word> words, Long dictionaryId) throws SQLException {
         String sql = """
             INSERT INTO dictionary_words 
             (dictionary_id, word, translation, created_at, updated_at)
             VALUES (?, ?, ?, ?, ?)
         """;
 
-        try (Connection conn = dbHelper.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            conn.setAutoCommit(false);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             LocalDateTime now = LocalDateTime.now();
             
             for (Word word : words) {
@@ -72,10 +83,6 @@ public class DictionaryWordRepository {
             }
             
             stmt.executeBatch();
-            conn.commit();
-            conn.setAutoCommit(true);
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to save dictionary words batch", e);
         }
     }
 
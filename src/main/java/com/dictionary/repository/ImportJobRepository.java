@@ -0,0 +1,153 @@
+package com.dictionary.repository;
+
+import com.dictionary.model.ImportJob;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class ImportJobRepository {
+    private final DatabaseHelper dbHelper;
+
+    public ImportJobRepository() {
+        this.dbHelper = DatabaseHelper.getInstance();
+    }
+
+    public ImportJob save(ImportJob job) {
+        String sql = """
+            INSERT INTO import_jobs
+            (dictionary_id, source_path, source_size, source_modified, status,
+             committed_batch, source_words, words_written, error, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setObject(1, job.getDictionaryId());
+            stmt.setString(2, job.getSourcePath());
+            stmt.setLong(3, job.getSourceSize());
+            stmt.setLong(4, job.getSourceModified());
+            stmt.setString(5, job.getStatus());
+            stmt.setLong(6, job.getCommittedBatch());
+            stmt.setLong(7, job.getSourceWords());
+            stmt.setLong(8, job.getWordsWritten());
+            stmt.setString(9, job.getError());
+            stmt.setTimestamp(10, Timestamp.valueOf(job.getCreatedAt()));
+            stmt.setTimestamp(11, Timestamp.valueOf(job.getUpdatedAt()));
+
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows == 0) {
+                throw new SQLException("Creating import job failed, no rows affected.");
+            }
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    job.setId(generatedKeys.getLong(1));
+                } else {
+                    throw new SQLException("Creating import job failed, no ID obtained.");
+                }
+            }
+
+            return job;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save import job", e);
+        }
+    }
+
+    public Optional<ImportJob> findById(Long id) {
+        String sql = "SELECT * FROM import_jobs WHERE id = ?";
+
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(mapResultSetToImportJob(rs));
+            }
+
+            return Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find import job by ID", e);
+        }
+    }
+
+    // Jobs that are not completed or discarded, newest first
+    public List<ImportJob> findUnfinished() {
+        String sql = "SELECT * FROM import_jobs WHERE status NOT IN (?, ?) ORDER BY id DESC";
+        List<ImportJob> jobs = new ArrayList<>();
+
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, ImportJob.STATUS_COMPLETED);
+            stmt.setString(2, ImportJob.STATUS_DISCARDED);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                jobs.add(mapResultSetToImportJob(rs));
+            }
+
+            return jobs;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch unfinished import jobs", e);
+        }
+    }
+
+    public void updateCheckpoint(Long jobId, long committedBatch, long sourceWords, long wordsWritten) {
+        String sql = """
+            UPDATE import_jobs
+            SET committed_batch = ?, source_words = ?, words_written = ?, updated_at = ?
+            WHERE id = ?
+        """;
+
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, committedBatch);
+            stmt.setLong(2, sourceWords);
+            stmt.setLong(3, wordsWritten);
+            stmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(5, jobId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update import job checkpoint", e);
+        }
+    }
+
+    public void updateStatus(ImportJob job) {
+        String sql = "UPDATE import_jobs SET status = ?, error = ?, updated_at = ? WHERE id = ?";
+
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, job.getStatus());
+            stmt.setString(2, job.getError());
+            stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(4, job.getId());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update import job status", e);
+        }
+    }
+
+    private ImportJob mapResultSetToImportJob(ResultSet rs) throws SQLException {
+        ImportJob job = new ImportJob();
+        job.setId(rs.getLong("id"));
+        long dictionaryId = rs.getLong("dictionary_id");
+        job.setDictionaryId(rs.wasNull() ? null : dictionaryId);
+        job.setSourcePath(rs.getString("source_path"));
+        job.setSourceSize(rs.getLong("source_size"));
+        job.setSourceModified(rs.getLong("source_modified"));
+        job.setStatus(rs.getString("status"));
+        job.setCommittedBatch(rs.getLong("committed_batch"));
+        job.setSourceWords(rs.getLong("source_words"));
+        job.setWordsWritten(rs.getLong("words_written"));
+        job.setError(rs.getString("error"));
+        job.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        job.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return job;
+    }
+}
@@ -1,37 +1,167 @@
 package com.dictionary.service;
 
 import com.dictionary.model.DictionaryMetadata;
+import com.dictionary.model.ImportJob;
 import com.dictionary.model.Word;
+import com.dictionary.repository.DatabaseHelper;
 import com.dictionary.repository.DictionaryMetadataRepository;
 import com.dictionary.repository.DictionaryWordRepository;
+import com.dictionary.repository.ImportJobRepository;
+import com.dictionary.util.DataProcessor;
+import com.dictionary.util.DictionaryImportUtil;
+import java.io.File;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class DictionaryService {
+    private final DatabaseHelper dbHelper;
     private final DictionaryMetadataRepository metadataRepository;
     private final DictionaryWordRepository wordRepository;
+    private final ImportJobRepository importJobRepository;
 
     public DictionaryService() {
+        this.dbHelper = DatabaseHelper.getInstance();
         this.metadataRepository = new DictionaryMetadataRepository();
         this.wordRepository = new DictionaryWordRepository();
+        this.importJobRepository = new ImportJobRepository();
     }
 
     public DictionaryMetadata createDictionary(DictionaryMetadata metadata, List<Word> words) {
-        // Save metadata first
-        DictionaryMetadata savedMetadata = metadataRepository.save(metadata);
-        
-        // Save words
-        if (words != null && !words.isEmpty()) {
-            wordRepository.saveAll(words, savedMetadata.getId());
-            
-            // Update word count
-            savedMetadata.setWordCount(words.size());
-            metadataRepository.update(savedMetadata);
+        // Metadata, words and word count commit together: a crash leaves either the whole dictionary or nothing
+        int wordCount = words != null ? words.size() : 0;
+        metadata.setWordCount(wordCount);
+        try {
+            dbHelper.inTransaction(conn -> {
+                metadataRepository.save(conn, metadata);
+                if (wordCount > 0) {
+                    wordRepository.saveAll(conn, words, metadata.getId());
+                }
+            });
+        } catch (SQLException e) {
+            metadata.setId(null);
+            throw new RuntimeException("Failed to create dictionary", e);
         }
         
+        return metadata;
+    }
+
+    /**
+     * Creates a dictionary from a file, saving each batch of words as it is read so that
+     * large files are imported with flat memory. Each batch commits together with the word count.
+     * On failure the partial dictionary is removed.
+     */
+    public DictionaryMetadata importDictionary(DictionaryMetadata metadata, File file) {
+        DictionaryMetadata savedMetadata = metadataRepository.save(metadata);
+        Long dictionaryId = savedMetadata.getId();
+
+        // Failures while saving a batch are reported through the result as well
+        DictionaryImportUtil.ImportResult result = DictionaryImportUtil.importDictionary(
+                file, DictionaryImportUtil.DEFAULT_BATCH_SIZE, batch -> addWordsToDictionary(dictionaryId, batch));
+        if (!result.isSuccess()) {
+            deleteDictionary(dictionaryId);
+            throw new RuntimeException(result.getError());
+        }
+
+        savedMetadata.setWordCount(result.getWordCount());
         return savedMetadata;
     }
 
+    /**
+     * Records a new import job for the file; dictionaryId is null for the main dictionary file
+     */
+    public ImportJob startImport(Long dictionaryId, File file) {
+        ImportJob job = new ImportJob(dictionaryId, file.getAbsolutePath(), file.length(), file.lastModified());
+        return importJobRepository.save(job);
+    }
+
+    /**
+     * The newest unfinished import of this file into this dictionary, if the file has not changed since
+     */
+    public Optional<ImportJob> findResumableImport(Long dictionaryId, File file) {
+        String path = file.getAbsolutePath();
+        for (ImportJob job : importJobRepository.findUnfinished()) {
+            if (Objects.equals(job.getDictionaryId(), dictionaryId) && job.getSourcePath().equals(path)) {
+                return job.isResumable(file.length(), file.lastModified()) ? Optional.of(job) : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Marks an unfinished import as not to be resumed; the words it committed are kept
+     */
+    public void discardImport(ImportJob job) {
+        job.setStatus(ImportJob.STATUS_DISCARDED);
+        importJobRepository.updateStatus(job);
+    }
+
+    /**
+     * Runs or resumes a job whose words are persisted by the writer outside the database, such as the main
+     * dictionary file. The checkpoint is recorded after the writer returns, so a crash in between replays
+     * that batch on resume; exists must recognize the words it already wrote.
+     * A checkpoint that cannot be saved fails the job.
+     *
+     * @throws RuntimeException if the job status cannot be saved
+     */
+    public ImportJob runImport(ImportJob job, Predicate<Word> exists, Consumer<List<Word>> writer,
+                               Consumer<DataProcessor.ImportProgress> listener, BooleanSupplier cancelled) {
+        job.setStatus(ImportJob.STATUS_RUNNING);
+        job.setError(null);
+        importJobRepository.updateStatus(job);
+
+        DictionaryImportUtil.ImportResult result = DataProcessor.importWords(new File(job.getSourcePath()), exists,
+                (batchId, sourceWords, words) -> {
+                    writer.accept(words);
+                    long wordsWritten = job.getWordsWritten() + words.size();
+                    // A checkpoint that cannot be saved fails the import; the job is only advanced once it is saved
+                    importJobRepository.updateCheckpoint(job.getId(), batchId, sourceWords, wordsWritten);
+                    setCheckpoint(job, batchId, sourceWords, wordsWritten);
+                }, listener, job.getCommittedBatch(), cancelled);
+
+        finish(job, result, cancelled);
+        importJobRepository.updateStatus(job);
+        return job;
+    }
+
+    /**
+     * Runs an import like {@link #runImport} without recording it, for when the database is unavailable.
+     * The returned job is not saved and cannot be resumed.
+     */
+    public static ImportJob runUnrecordedImport(File file, Predicate<Word> exists, Consumer<List<Word>> writer,
+                                                Consumer<DataProcessor.ImportProgress> listener,
+                                                BooleanSupplier cancelled) {
+        ImportJob job = new ImportJob(null, file.getAbsolutePath(), file.length(), file.lastModified());
+        DictionaryImportUtil.ImportResult result = DataProcessor.importWords(file, exists,
+                (batchId, sourceWords, words) -> {
+                    writer.accept(words);
+                    setCheckpoint(job, batchId, sourceWords, job.getWordsWritten() + words.size());
+                }, listener, -1, cancelled);
+        finish(job, result, cancelled);
+        return job;
+    }
+
+    private static void finish(ImportJob job, DictionaryImportUtil.ImportResult result, BooleanSupplier cancelled) {
+        if (result.isSuccess()) {
+            job.setStatus(ImportJob.STATUS_COMPLETED);
+        } else if (cancelled != null && cancelled.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+            job.setStatus(ImportJob.STATUS_CANCELLED);
+        } else {
+            job.setStatus(ImportJob.STATUS_FAILED);
+            job.setError(result.getError());
+        }
+    }
+
+    private static void setCheckpoint(ImportJob job, long batchId, long sourceWords, long wordsWritten) {
+        job.setCommittedBatch(batchId);
+        job.setSourceWords(sourceWords);
+        job.setWordsWritten(wordsWritten);
+    }
+
     public void updateDictionary(DictionaryMetadata metadata, List<Word> words) {
         // Update metadata
         metadataRepository.update(metadata);
@@ -88,14 +218,15 @@ public class DictionaryService {
 
     public void addWordsToDictionary(Long dictionaryId, List<Word> words) {
         if (words != null && !words.isEmpty()) {
-            wordRepository.saveAll(words, dictionaryId);
-            
-            // Update word count
-            Optional<DictionaryMetadata> metadata = metadataRepository.findById(dictionaryId);
-            metadata.ifPresent(m -> {
-                m.setWordCount(m.getWordCount() + words.size());
-                metadataRepository.update(m);
-            });
+            // Words and word count commit together
+            try {
+                dbHelper.inTransaction(conn -> {
+                    wordRepository.saveAll(conn, words, dictionaryId);
+                    metadataRepository.addWordCount(conn, dictionaryId, words.size());
+                });
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to add dictionary words", e);
+            }
         }
     }
 
@@ -0,0 +1,47 @@
+package com.dictionary.util;
+
+import java.util.Arrays;
+
+/**
+ * 只追加的数组，供单线程写入、多线程无锁读取的倒排表使用
+ * 每次追加返回新的视图（底层数组按倍数扩容，未满时与旧视图共用），旧视图的内容不受影响：
+ * 追加只写入旧视图长度之外的位置。写入方把新视图发布到并发容器或 volatile 字段后，读取方即可安全读取。
+ */
+public final class AppendOnlyArray<T> {
+    private final Object[] elements;
+    private final int size;
+
+    private AppendOnlyArray(Object[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    public static <T> AppendOnlyArray<T> of(T element) {
+        return new AppendOnlyArray<>(new Object[] {element}, 1);
+    }
+
+    public static <T> AppendOnlyArray<T> empty() {
+        return new AppendOnlyArray<>(new Object[4], 0);
+    }
+
+    /**
+     * 追加元素；只能对最新的视图调用
+     */
+    public AppendOnlyArray<T> append(T element) {
+        Object[] target = elements;
+        if (size == target.length) {
+            target = Arrays.copyOf(target, Math.max(4, size * 2));
+        }
+        target[size] = element;
+        return new AppendOnlyArray<>(target, size + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) elements[index];
+    }
+}
@@ -0,0 +1,56 @@
+package com.dictionary.util;
+
+import java.util.Arrays;
+
+/**
+ * int 元素的只追加数组，语义与 {@link AppendOnlyArray} 相同
+ */
+public final class AppendOnlyIntArray {
+    private final int[] elements;
+    private final int size;
+
+    private AppendOnlyIntArray(int[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    public static AppendOnlyIntArray of(int element) {
+        return new AppendOnlyIntArray(new int[] {element}, 1);
+    }
+
+    /**
+     * 以已有数组作为初始内容，不复制；调用方之后不得修改该数组
+     */
+    public static AppendOnlyIntArray wrap(int[] elements) {
+        return new AppendOnlyIntArray(elements, elements.length);
+    }
+
+    /**
+     * 追加元素；只能对最新的视图调用
+     */
+    public AppendOnlyIntArray append(int element) {
+        int[] target = elements;
+        if (size == target.length) {
+            target = Arrays.copyOf(target, Math.max(4, size * 2));
+        }
+        target[size] = element;
+        return new AppendOnlyIntArray(target, size + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        return elements[index];
+    }
+
+    public boolean contains(int element) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == element) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
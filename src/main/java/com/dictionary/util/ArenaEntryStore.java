@@ -0,0 +1,154 @@
+package com.dictionary.util;
+
+import com.dictionary.model.Word;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 堆上的紧凑词条存储
+ * 全部词条的词头和释义以 UTF-8 依次写入共享的大块 byte[]（每个字段前为变长编码的字节数），其后是简化释义
+ * 在释义中的区间（见 {@link SimplifiedRanges}），不另存简化释义的文本。
+ * 每个词条只占一个 long 地址（块号 << 32 | 块内偏移），不再为每个字段各保留一个 String 及其数组。
+ * 块从 4KB 起倍增到 1MB，之后按 1MB 分配；一条记录不跨块，超过块大小的记录单独占一块。
+ */
+public final class ArenaEntryStore implements EntryStore {
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+    private static final int MAX_CHUNK_SIZE = 1 << 20;
+
+    // 数组扩容时替换引用，读取方读到的新旧数组都包含已发布的词条
+    private volatile byte[][] chunks = new byte[16][];
+    private volatile long[] addresses = new long[1024];
+    private volatile int size;
+    // 以下只由写入线程访问
+    private int chunkCount;
+    private int position;
+
+    @Override
+    public int add(Word word) {
+        byte[] headword = word.getWord().getBytes(StandardCharsets.UTF_8);
+        byte[] translation = word.getTranslation().getBytes(StandardCharsets.UTF_8);
+        byte[] simplified = SimplifiedRanges.encode(translation, word.getSimplifiedTranslation());
+        int length = fieldLength(headword) + fieldLength(translation) + simplified.length;
+
+        byte[] chunk = chunkCount == 0 ? null : chunks[chunkCount - 1];
+        if (chunk == null || chunk.length - position < length) {
+            chunk = newChunk(length);
+        }
+        long address = (long) (chunkCount - 1) << 32 | position;
+        position = putField(chunk, position, headword);
+        position = putField(chunk, position, translation);
+        System.arraycopy(simplified, 0, chunk, position, simplified.length);
+        position += simplified.length;
+
+        int entry = size;
+        long[] target = addresses;
+        if (entry == target.length) {
+            target = Arrays.copyOf(target, entry * 2);
+        }
+        target[entry] = address;
+        addresses = target;
+        size = entry + 1;
+        return entry;
+    }
+
+    private byte[] newChunk(int minLength) {
+        int chunkSize = chunkCount == 0 ? MIN_CHUNK_SIZE
+                : Math.min(MAX_CHUNK_SIZE, chunks[chunkCount - 1].length * 2);
+        byte[] chunk = new byte[Math.max(chunkSize, minLength)];
+        byte[][] target = chunks;
+        if (chunkCount == target.length) {
+            target = Arrays.copyOf(target, chunkCount * 2);
+        }
+        target[chunkCount++] = chunk;
+        chunks = target;
+        position = 0;
+        return chunk;
+    }
+
+    private static int fieldLength(byte[] field) {
+        int length = field.length;
+        int prefix = 1;
+        while (length >= 0x80) {
+            length >>>= 7;
+            prefix++;
+        }
+        return prefix + field.length;
+    }
+
+    private static int putField(byte[] chunk, int offset, byte[] field) {
+        int length = field.length;
+        while (length >= 0x80) {
+            chunk[offset++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        chunk[offset++] = (byte) length;
+        System.arraycopy(field, 0, chunk, offset, field.length);
+        return offset + field.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getHeadword(int entry) {
+        return getField(entry, 0);
+    }
+
+    @Override
+    public String getTranslation(int entry) {
+        return getField(entry, 1);
+    }
+
+    @Override
+    public String getSimplifiedTranslation(int entry) {
+        long address = addresses[entry];
+        byte[] chunk = chunks[(int) (address >>> 32)];
+        int translation = fieldStart(chunk, (int) address, 1);
+        return SimplifiedRanges.decode(chunk, dataStart(chunk, translation), fieldStart(chunk, translation, 1));
+    }
+
+    /**
+     * 读取词条的第 index 个字段
+     */
+    private String getField(int entry, int index) {
+        long address = addresses[entry];
+        byte[] chunk = chunks[(int) (address >>> 32)];
+        int field = fieldStart(chunk, (int) address, index);
+        return new String(chunk, dataStart(chunk, field), readLength(chunk, field), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从 offset 处的字段起跳过 index 个字段，返回所到字段的起点（字节数之前）
+     */
+    private static int fieldStart(byte[] chunk, int offset, int index) {
+        for (int i = 0; i < index; i++) {
+            offset = dataStart(chunk, offset) + readLength(chunk, offset);
+        }
+        return offset;
+    }
+
+    private static int readLength(byte[] chunk, int offset) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = chunk[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return length;
+    }
+
+    /**
+     * 跳过字段前的字节数，返回字段内容的起点
+     */
+    private static int dataStart(byte[] chunk, int offset) {
+        while (chunk[offset++] < 0) {
+            // 变长编码的后续字节
+        }
+        return offset;
+    }
+}
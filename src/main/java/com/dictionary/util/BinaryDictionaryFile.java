@@ -0,0 +1,342 @@
+package com.dictionary.util;
+
+import com.dictionary.model.Word;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * 二进制词典文件，由 EnWords.csv 转换而来，启动时通过 FileChannel.map 映射而无需逐行解析
+ * 文件布局（大端序）：
+ * <pre>
+ *   文件头    magic "DICB"、格式版本、词条数、文本区长度、源 CSV 的长度和修改时间、其后全部内容的 CRC32、
+ *            小写词头区长度
+ *   偏移表    每个词条两个 int：词头和释义在文本区中的起始位置（释义结束于下一词条的词头起始处）
+ *   排序表    按小写词头的 UTF-8 字节序排序，每项两个 int：词条编号及其小写词头在小写词头区中的起始位置，
+ *            词头相同时编号小的在前，用于二分查找和前缀补全
+ *   文本区    UTF-8 编码的词头和释义，依次紧密排列
+ *   小写词头区 UTF-8 编码的小写词头，按排序表的顺序紧密排列
+ * </pre>
+ * 查找和补全直接在映射的小写词头字节上比较，只为命中的词条解码字符串。
+ * 偏移为 int，单个文件不超过 2GB。只读，按需解码，可被多个线程同时访问。
+ */
+public final class BinaryDictionaryFile {
+    private static final int MAGIC = 0x44494342; // "DICB"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int CHECKSUM_OFFSET = 32;
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int blobLength;
+    private final int foldedLength;
+    private final long sourceLength;
+    private final long sourceModified;
+    private final int sortedStart;
+    private final int blobStart;
+    private final int foldedStart;
+
+    private BinaryDictionaryFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("不是二进制词典文件");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("不支持的二进制词典版本: " + buffer.getInt(4));
+        }
+        entryCount = buffer.getInt(8);
+        blobLength = buffer.getInt(12);
+        sourceLength = buffer.getLong(16);
+        sourceModified = buffer.getLong(24);
+        foldedLength = buffer.getInt(36);
+        if (entryCount < 0 || blobLength < 0 || foldedLength < 0
+                || HEADER_SIZE + entryCount * 16L + blobLength + foldedLength != buffer.capacity()) {
+            throw new IOException("二进制词典文件长度不符");
+        }
+        sortedStart = HEADER_SIZE + entryCount * 8;
+        blobStart = sortedStart + entryCount * 8;
+        foldedStart = blobStart + blobLength;
+    }
+
+    /**
+     * 以只读方式映射二进制词典文件，只检查文件头和长度，不读取其余内容；映射在对象被回收后释放
+     * 内容的校验见 {@link #verify()}
+     */
+    public static BinaryDictionaryFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BinaryDictionaryFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 不写入磁盘，直接在堆上编码词条，用于无法写入二进制文件时
+     */
+    public static BinaryDictionaryFile of(List<Word> words) {
+        try {
+            return new BinaryDictionaryFile(encode(words, 0, 0));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 将 CSV 词典转换为二进制词典
+     */
+    public static void convert(Path csv, Path target) throws IOException {
+        write(target, FileIOUtil.readDictionaryFile(csv.toString()), Files.size(csv),
+                Files.getLastModifiedTime(csv).toMillis());
+    }
+
+    /**
+     * 写入二进制词典；先写临时文件再替换，读取方不会看到写了一半的文件，失败时删除临时文件
+     * Windows 上不能替换仍被映射的文件，调用方应为不同的源文件使用不同的 target（见 FileIOUtil.openDictionaryFile）
+     * @param sourceLength 源文件长度，用于判断二进制文件是否过期
+     * @param sourceModified 源文件修改时间（毫秒）
+     */
+    public static void write(Path target, List<Word> words, long sourceLength, long sourceModified) throws IOException {
+        ByteBuffer encoded = encode(words, sourceLength, sourceModified);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (encoded.hasRemaining()) {
+                    channel.write(encoded);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static ByteBuffer encode(List<Word> words, long sourceLength, long sourceModified) throws IOException {
+        int count = words.size();
+        byte[][] headwords = new byte[count][];
+        byte[][] translations = new byte[count][];
+        byte[][] folded = new byte[count][];
+        long blobLength = 0;
+        long foldedLength = 0;
+        for (int i = 0; i < count; i++) {
+            Word word = words.get(i);
+            headwords[i] = word.getWord().getBytes(StandardCharsets.UTF_8);
+            translations[i] = word.getTranslation().getBytes(StandardCharsets.UTF_8);
+            folded[i] = word.getFoldedWord().getBytes(StandardCharsets.UTF_8);
+            blobLength += headwords[i].length + translations[i].length;
+            foldedLength += folded[i].length;
+        }
+        long total = HEADER_SIZE + count * 16L + blobLength + foldedLength;
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("词典过大，二进制文件不能超过 2GB");
+        }
+
+        // 稳定排序，同一词头的词条保持原顺序；按字节序排序，与查找时的比较一致
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(folded[a], folded[b]));
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) total);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(count).putInt((int) blobLength)
+                .putLong(sourceLength).putLong(sourceModified).putInt(0).putInt((int) foldedLength);
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(offset);
+            offset += headwords[i].length;
+            buffer.putInt(offset);
+            offset += translations[i].length;
+        }
+        offset = 0;
+        for (Integer id : sorted) {
+            buffer.putInt(id).putInt(offset);
+            offset += folded[id].length;
+        }
+        for (int i = 0; i < count; i++) {
+            buffer.put(headwords[i]).put(translations[i]);
+        }
+        for (Integer id : sorted) {
+            buffer.put(folded[id]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, (int) total - HEADER_SIZE);
+        buffer.putInt(CHECKSUM_OFFSET, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * 是否由给定长度和修改时间的源文件生成
+     */
+    public boolean isCurrent(long length, long modified) {
+        return sourceLength == length && sourceModified == modified;
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * 文件头中记录的、其后全部内容的 CRC32，可用作内容的键而无需读取文件
+     */
+    public int getChecksum() {
+        return buffer.getInt(CHECKSUM_OFFSET);
+    }
+
+    /**
+     * 计算文件头之后全部内容的 CRC32 并与文件头比较；需要读完整个文件，应在后台调用
+     * @throws IOException 校验失败
+     */
+    public void verify() throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        if ((int) crc.getValue() != getChecksum()) {
+            throw new IOException("二进制词典文件校验失败");
+        }
+    }
+
+    public String getHeadword(int id) {
+        return decode(headwordStart(id), translationStart(id));
+    }
+
+    public String getTranslation(int id) {
+        return decode(translationStart(id), id + 1 < entryCount ? headwordStart(id + 1) : blobLength);
+    }
+
+    public Word getWord(int id) {
+        return new Word(getHeadword(id), getTranslation(id));
+    }
+
+    /**
+     * 按文件顺序排列的词条视图，访问时才解码
+     */
+    public List<Word> asList() {
+        return new WordList();
+    }
+
+    /**
+     * 按词头精确查找（忽略大小写），返回文件中第一个匹配的词条
+     */
+    public Word find(String headword) {
+        byte[] key = foldKey(headword);
+        int index = lowerBound(key);
+        if (index < entryCount && compareFolded(index, key) == 0) {
+            return getWord(sortedId(index));
+        }
+        return null;
+    }
+
+    /**
+     * 词头以 prefix 开头的词条（忽略大小写），按词头字母序，最多 limit 个
+     */
+    public List<Word> complete(String prefix, int limit) {
+        byte[] key = foldKey(prefix);
+        List<Word> result = new ArrayList<>();
+        for (int index = lowerBound(key); index < entryCount && result.size() < limit; index++) {
+            if (!startsWith(index, key)) {
+                break;
+            }
+            result.add(getWord(sortedId(index)));
+        }
+        return result;
+    }
+
+    /**
+     * 与 Word 的小写词头相同的折叠方式，编码为 UTF-8 后在映射的字节上比较
+     */
+    private static byte[] foldKey(String text) {
+        return text.toLowerCase().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 排序表中第一个小写词头不小于 key 的位置
+     */
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareFolded(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 按无符号字节序比较排序表第 index 项的小写词头与 key，不解码、不分配
+     */
+    private int compareFolded(int index, byte[] key) {
+        int start = foldedStart + foldedOffset(index);
+        int length = foldedHeadwordLength(index);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = Byte.toUnsignedInt(buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    private boolean startsWith(int index, byte[] key) {
+        if (foldedHeadwordLength(index) < key.length) {
+            return false;
+        }
+        int start = foldedStart + foldedOffset(index);
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int sortedId(int index) {
+        return buffer.getInt(sortedStart + index * 8);
+    }
+
+    private int foldedOffset(int index) {
+        return buffer.getInt(sortedStart + index * 8 + 4);
+    }
+
+    private int foldedHeadwordLength(int index) {
+        return (index + 1 < entryCount ? foldedOffset(index + 1) : foldedLength) - foldedOffset(index);
+    }
+
+    private int headwordStart(int id) {
+        return buffer.getInt(HEADER_SIZE + id * 8);
+    }
+
+    private int translationStart(int id) {
+        return buffer.getInt(HEADER_SIZE + id * 8 + 4);
+    }
+
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(blobStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private final class WordList extends AbstractList<Word> implements RandomAccess {
+        @Override
+        public Word get(int index) {
+            Objects.checkIndex(index, entryCount);
+            return getWord(index);
+        }
+
+        @Override
+        public int size() {
+            return entryCount;
+        }
+    }
+}
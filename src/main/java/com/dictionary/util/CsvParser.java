@@ -0,0 +1,346 @@
+package com.dictionary.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * 符合 RFC 4180 的 CSV 解析器（UTF-8）
+ * 按字节运行的状态机，不使用正则：字段可用双引号包围，引号内可包含逗号和换行，"" 表示一个引号；
+ * 记录以 LF、CRLF 或 CR 结束，空行忽略，文件开头的 UTF-8 BOM 忽略。
+ * 对不规范的输入尽量宽松：未加引号的字段中的引号、引号字段中未转义（其后不是逗号或换行）的引号都按字面保留。
+ * 实例可以分块喂入 {@link ByteBuffer}，状态跨块保留；{@link #parseFile} 将大文件按引号感知的边界切分后并行解析。
+ */
+public final class CsvParser {
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    // 引号内遇到引号：可能是转义的引号，也可能是右引号
+    private static final int QUOTE_IN_QUOTED = 3;
+    // 记录以 CR 结束，紧跟的 LF 属于同一个换行
+    private static final int AFTER_CR = 4;
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    // 小于该大小的文件不分块
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK_SIZE = 256 << 10;
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    private final Consumer<String[]> sink;
+    private int state = FIELD_START;
+    private byte[] field = new byte[64];
+    private int fieldLength;
+    private final List<String> record = new ArrayList<>();
+    private boolean malformed;
+
+    /**
+     * @param sink 按顺序接收每条记录的字段
+     */
+    public CsvParser(Consumer<String[]> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 解析 buffer 中从 position 到 limit 的全部字节；不改变 buffer 的 position
+     */
+    public void feed(ByteBuffer buffer) {
+        feed(buffer, buffer.position(), buffer.limit());
+    }
+
+    private void feed(ByteBuffer buffer, int from, int to) {
+        if (buffer.hasArray()) {
+            feed(buffer.array(), buffer.arrayOffset() + from, buffer.arrayOffset() + to);
+            return;
+        }
+        // 直接缓冲区（如映射的文件）逐字节读取较慢，分段复制到堆上再解析
+        byte[] block = new byte[Math.min(STREAM_BUFFER_SIZE, to - from)];
+        for (int offset = from; offset < to; offset += block.length) {
+            int length = Math.min(block.length, to - offset);
+            buffer.get(offset, block, 0, length);
+            feed(block, 0, length);
+        }
+    }
+
+    private void feed(byte[] data, int from, int to) {
+        int state = this.state;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            switch (state) {
+                case AFTER_CR:
+                    if (b == LF) {
+                        state = FIELD_START;
+                        break;
+                    }
+                    // CR 单独作为换行，当前字节属于下一条记录
+                case FIELD_START:
+                    if (b == QUOTE) {
+                        state = QUOTED;
+                    } else if (b == COMMA) {
+                        endField();
+                    } else if (b == LF) {
+                        endRecord();
+                    } else if (b == CR) {
+                        endRecord();
+                        state = AFTER_CR;
+                    } else {
+                        append(b);
+                        state = UNQUOTED;
+                    }
+                    break;
+                case UNQUOTED:
+                    if (b == COMMA) {
+                        endField();
+                        state = FIELD_START;
+                    } else if (b == LF) {
+                        endRecord();
+                        state = FIELD_START;
+                    } else if (b == CR) {
+                        endRecord();
+                        state = AFTER_CR;
+                    } else {
+                        if (b == QUOTE) {
+                            malformed = true;
+                        }
+                        append(b);
+                    }
+                    break;
+                case QUOTED:
+                    if (b == QUOTE) {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case QUOTE_IN_QUOTED:
+                    if (b == QUOTE) {
+                        append(b);
+                        state = QUOTED;
+                    } else if (b == COMMA) {
+                        endField();
+                        state = FIELD_START;
+                    } else if (b == LF) {
+                        endRecord();
+                        state = FIELD_START;
+                    } else if (b == CR) {
+                        endRecord();
+                        state = AFTER_CR;
+                    } else {
+                        // 未转义的引号，按字面保留（旧版写入的文件不转义引号）
+                        malformed = true;
+                        append(QUOTE);
+                        append(b);
+                        state = QUOTED;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("未知状态: " + state);
+            }
+        }
+        this.state = state;
+    }
+
+    /**
+     * 输入结束：输出最后一条没有换行结尾的记录；未闭合的引号字段按已读到的内容结束
+     */
+    public void finish() {
+        if (state == QUOTED) {
+            malformed = true;
+        }
+        if (state != FIELD_START && state != AFTER_CR || !record.isEmpty()) {
+            endRecord();
+        }
+        state = FIELD_START;
+    }
+
+    /**
+     * 是否遇到过不规范的引号（未加引号的字段中的引号、未转义的引号、未闭合的引号）
+     */
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, fieldLength * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private void endField() {
+        record.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+        fieldLength = 0;
+    }
+
+    private void endRecord() {
+        endField();
+        // 空行
+        if (record.size() == 1 && record.get(0).isEmpty()) {
+            record.clear();
+            return;
+        }
+        sink.accept(record.toArray(new String[0]));
+        record.clear();
+    }
+
+    /**
+     * 流式解析输入流，每次读取一块喂入解析器
+     */
+    public static void parse(InputStream in, Consumer<String[]> sink) throws IOException {
+        CsvParser parser = new CsvParser(sink);
+        byte[] chunk = new byte[STREAM_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        boolean first = true;
+        int read;
+        while ((read = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+            int start = first ? bomLength(buffer, read) : 0;
+            first = false;
+            parser.feed(chunk, start, read);
+        }
+        parser.finish();
+    }
+
+    /**
+     * 解析整个文件，返回全部记录
+     * 大文件映射后分块并行解析：先并行统计各块中的引号数，由此得到每个块起点之前的引号奇偶性，
+     * 即可判断起点是否落在引号字段内，再把起点推到其后第一个引号外的换行之后，各块从记录边界开始独立解析，
+     * 结果按块的顺序拼接。引号不规范时奇偶性不可靠，此时退回顺序解析。
+     */
+    public static List<String[]> parseFile(Path path) throws IOException {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return parseFile(path, processors == 1 ? 1 : processors * 4);
+    }
+
+    /**
+     * 同 {@link #parseFile(Path)}，最多切分为 maxChunks 块；为 1 时顺序解析（用于基准测试对比）
+     */
+    static List<String[]> parseFile(Path path, int maxChunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                List<String[]> records = new ArrayList<>();
+                parse(Channels.newInputStream(channel), records::add);
+                return records;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int start = bomLength(buffer, (int) size);
+            int end = (int) size;
+            int chunks = size < PARALLEL_THRESHOLD || maxChunks <= 1 ? 1
+                    : (int) Math.max(1, Math.min(size / MIN_CHUNK_SIZE, maxChunks));
+            if (chunks == 1) {
+                return parseRange(buffer, start, end).records;
+            }
+
+            int[] bounds = new int[chunks + 1];
+            for (int i = 0; i <= chunks; i++) {
+                bounds[i] = start + (int) ((long) (end - start) * i / chunks);
+            }
+            int[] quotes = IntStream.range(0, chunks).parallel()
+                    .map(i -> countQuotes(buffer, bounds[i], bounds[i + 1]))
+                    .toArray();
+            int[] starts = new int[chunks + 1];
+            starts[0] = start;
+            starts[chunks] = end;
+            int quoteCount = 0;
+            for (int i = 1; i < chunks; i++) {
+                quoteCount += quotes[i - 1];
+                starts[i] = Math.max(starts[i - 1], nextRecordStart(buffer, bounds[i], end, (quoteCount & 1) != 0));
+            }
+
+            List<Chunk> parsed = IntStream.range(0, chunks).parallel()
+                    .mapToObj(i -> parseRange(buffer, starts[i], starts[i + 1]))
+                    .toList();
+            List<String[]> records = new ArrayList<>();
+            for (Chunk chunk : parsed) {
+                if (chunk.malformed) {
+                    return parseRange(buffer, start, end).records;
+                }
+                records.addAll(chunk.records);
+            }
+            return records;
+        }
+    }
+
+    private static Chunk parseRange(ByteBuffer buffer, int from, int to) {
+        List<String[]> records = new ArrayList<>();
+        CsvParser parser = new CsvParser(records::add);
+        parser.feed(buffer, from, to);
+        parser.finish();
+        return new Chunk(records, parser.isMalformed());
+    }
+
+    private static int countQuotes(ByteBuffer buffer, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == QUOTE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 从 from 开始，返回第一个引号外的 LF 之后的位置；inQuotes 为 from 处是否在引号字段内
+     */
+    private static int nextRecordStart(ByteBuffer buffer, int from, int to, boolean inQuotes) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (b == LF && !inQuotes) {
+                return i + 1;
+            }
+        }
+        return to;
+    }
+
+    private static int bomLength(ByteBuffer buffer, int length) {
+        return length >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB
+                && buffer.get(2) == (byte) 0xBF ? 3 : 0;
+    }
+
+    /**
+     * 将字段写为 CSV 格式：用双引号包围，其中的引号写为 ""
+     */
+    public static String quote(String field) {
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * 将字段写为一条 CSV 记录（不含换行）
+     */
+    public static String formatRecord(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(quote(fields[i]));
+        }
+        return sb.toString();
+    }
+
+    private static final class Chunk {
+        private final List<String[]> records;
+        private final boolean malformed;
+
+        Chunk(List<String[]> records, boolean malformed) {
+            this.records = records;
+            this.malformed = malformed;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.dictionary.util;
 
 import com.dictionary.model.Word;
+import java.io.File;
+import java.text.Normalizer;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class DataProcessor {
     private static final int BATCH_SIZE = 1000;
@@ -93,6 +99,464 @@ public class DataProcessor {
         }
     }
     
+    /**
+     * Imports a dictionary file through a staged pipeline with bounded queues between the stages:
+     * parse (one thread) -> normalize (a worker per spare processor) -> dedupe (one thread, restores
+     * source order) -> write (one thread). Parsing, normalization and I/O overlap, and a slow writer
+     * blocks the stages before it instead of letting batches pile up in memory.
+     *
+     * @param exists   words already present, skipped as duplicates; must recognize the words the writer has
+     *                 written, since dedupe only remembers the batches still on their way to the writer.
+     *                 May be null, in which case only duplicates that close together are skipped
+     * @param writer   persists a batch; called from a single thread, in source order
+     * @param listener receives progress from the writer thread at most every
+     *                 {@link #PROGRESS_INTERVAL_MILLIS} ms and once at the end; may be null
+     * @return the parse result, with the number of words written as its word count
+     */
+    public static DictionaryImportUtil.ImportResult importWords(File file, Predicate<Word> exists,
+            Consumer<List<Word>> writer, Consumer<ImportProgress> listener) {
+        return importWords(file, exists, (batchId, sourceWords, words) -> writer.accept(words), listener, -1, null);
+    }
+
+    /**
+     * Imports like {@link #importWords(File, Predicate, Consumer, Consumer)}, for resumable jobs.
+     * Batches up to resumeAfterBatch are parsed again but not written; the words they committed must be
+     * recognized by exists. Cancellation is checked by the parser before each batch and by
+     * the writer between batches, so a batch being written is never interrupted; the result is then an error.
+     *
+     * @param resumeAfterBatch id of the last batch committed by an earlier run, -1 to start from the beginning
+     * @param cancelled        polled for cooperative cancellation; may be null
+     */
+    public static DictionaryImportUtil.ImportResult importWords(File file, Predicate<Word> exists, BatchWriter writer,
+            Consumer<ImportProgress> listener, long resumeAfterBatch, BooleanSupplier cancelled) {
+        return new ImportPipeline(exists, writer, listener, resumeAfterBatch, cancelled).run(file);
+    }
+
+    /**
+     * Persists the batches of an import
+     */
+    public interface BatchWriter {
+        /**
+         * @param batchId     position of the batch in the source; increasing, with gaps where dedupe left
+         *                    a batch empty. A checkpoint at this id resumes after this batch
+         * @param sourceWords words read from the source up to the end of this batch
+         */
+        void write(long batchId, long sourceWords, List<Word> words);
+    }
+
+    public static final long PROGRESS_INTERVAL_MILLIS = 500;
+
+    /**
+     * Snapshot of a running import
+     */
+    public static final class ImportProgress {
+        private final long wordsRead;
+        private final long wordsWritten;
+        private final long skipped;
+        private final long elapsedMillis;
+        private final double sourceFraction;
+        private final int parsedQueueDepth;
+        private final int normalizedQueueDepth;
+        private final int writeQueueDepth;
+        private final boolean finished;
+
+        ImportProgress(long wordsRead, long wordsWritten, long skipped, long elapsedMillis, double sourceFraction,
+                       int parsedQueueDepth, int normalizedQueueDepth, int writeQueueDepth, boolean finished) {
+            this.wordsRead = wordsRead;
+            this.wordsWritten = wordsWritten;
+            this.skipped = skipped;
+            this.elapsedMillis = elapsedMillis;
+            this.sourceFraction = sourceFraction;
+            this.parsedQueueDepth = parsedQueueDepth;
+            this.normalizedQueueDepth = normalizedQueueDepth;
+            this.writeQueueDepth = writeQueueDepth;
+            this.finished = finished;
+        }
+
+        // Words produced by the parser so far
+        public long getWordsRead() {
+            return wordsRead;
+        }
+
+        public long getWordsWritten() {
+            return wordsWritten;
+        }
+
+        // Words skipped as empty after normalization, as duplicates, or as committed before a resume
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        // Words written per second
+        public double getThroughput() {
+            return elapsedMillis == 0 ? 0 : wordsWritten * 1000.0 / elapsedMillis;
+        }
+
+        // Fraction of the source read by the parser, -1 when the format gives no estimate
+        public double getSourceFraction() {
+            return finished ? 1.0 : sourceFraction;
+        }
+
+        // Batches waiting between parse and normalize, normalize and dedupe, dedupe and write
+        public int getParsedQueueDepth() {
+            return parsedQueueDepth;
+        }
+
+        public int getNormalizedQueueDepth() {
+            return normalizedQueueDepth;
+        }
+
+        public int getWriteQueueDepth() {
+            return writeQueueDepth;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * Estimated remaining time: the expected total is extrapolated from the words read against the
+         * source fraction, the rate from the words written or skipped so far; -1 when unknown
+         */
+        public long getEtaMillis() {
+            if (finished) {
+                return 0;
+            }
+            long done = wordsWritten + skipped;
+            if (sourceFraction <= 0 || done == 0 || elapsedMillis == 0) {
+                return -1;
+            }
+            double expected = wordsRead / sourceFraction;
+            return (long) (Math.max(0, expected - done) * elapsedMillis / done);
+        }
+    }
+
+    private static final class ImportPipeline {
+        private static final Batch END = new Batch(-1, null, 0);
+        private static final String CANCELLED = "Import cancelled";
+
+        private final Predicate<Word> exists;
+        private final BatchWriter writer;
+        private final Consumer<ImportProgress> listener;
+        private final long resumeAfterBatch;
+        private final BooleanSupplier cancelled;
+        private final int normalizers = Math.max(1, THREAD_POOL_SIZE - 2);
+        private final BlockingQueue<Batch> parsed = new ArrayBlockingQueue<>(normalizers * 2);
+        private final BlockingQueue<Batch> normalized = new ArrayBlockingQueue<>(normalizers * 2);
+        private final BlockingQueue<Batch> deduped = new ArrayBlockingQueue<>(4);
+        private final ExecutorService stages = Executors.newFixedThreadPool(normalizers + 3);
+        private final AtomicReference<String> error = new AtomicReference<>();
+        // Stages start once all are submitted, so a failing stage cannot shut the pool down before then
+        private final CountDownLatch submitted = new CountDownLatch(1);
+        private final AtomicLong wordsRead = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private volatile double sourceFraction = -1;
+        private volatile DictionaryImportUtil.ImportResult parseResult;
+        // Set when the parser read the whole source; END without it means the parse was cancelled
+        private volatile boolean parseComplete;
+        // Sequence of the last batch the writer returned from; dedupe forgets batches up to it
+        private volatile long lastWritten = -1;
+        private long startNanos;
+        // Writer thread only
+        private long wordsWritten;
+        private long lastReportNanos;
+
+        ImportPipeline(Predicate<Word> exists, BatchWriter writer, Consumer<ImportProgress> listener,
+                       long resumeAfterBatch, BooleanSupplier cancelled) {
+            this.exists = exists;
+            this.writer = writer;
+            this.listener = listener;
+            this.resumeAfterBatch = resumeAfterBatch;
+            this.cancelled = cancelled;
+        }
+
+        private boolean isCancelled() {
+            return cancelled != null && cancelled.getAsBoolean();
+        }
+
+        DictionaryImportUtil.ImportResult run(File file) {
+            startNanos = System.nanoTime();
+            stages.execute(stage(() -> parse(file)));
+            for (int i = 0; i < normalizers; i++) {
+                stages.execute(stage(this::normalize));
+            }
+            stages.execute(stage(this::dedupe));
+            stages.execute(stage(this::write));
+            submitted.countDown();
+            stages.shutdown();
+            try {
+                stages.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                fail(CANCELLED);
+                stages.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+
+            String message = error.get();
+            if (message != null) {
+                return new DictionaryImportUtil.ImportResult(message);
+            }
+            DictionaryImportUtil.ImportResult result = parseResult;
+            return new DictionaryImportUtil.ImportResult((int) wordsWritten, result.getHeaders(),
+                    result.getColumnMap(), result.getFormat());
+        }
+
+        private interface Stage {
+            void run() throws InterruptedException;
+        }
+
+        /**
+         * The first failing stage records the error and interrupts the others, which may be blocked on a queue
+         */
+        private Runnable stage(Stage stage) {
+            return () -> {
+                try {
+                    submitted.await();
+                    stage.run();
+                } catch (InterruptedException e) {
+                    // Cancelled because another stage failed
+                } catch (RuntimeException | Error e) {
+                    fail(e.getMessage() != null ? e.getMessage() : e.toString());
+                    if (e instanceof Error) {
+                        throw (Error) e;
+                    }
+                }
+            };
+        }
+
+        private void fail(String message) {
+            if (error.compareAndSet(null, message)) {
+                stages.shutdownNow();
+            }
+        }
+
+        private void parse(File file) throws InterruptedException {
+            long[] sequence = {0};
+            long[] sourceWords = {0};
+            DictionaryImportUtil.ImportResult result = DictionaryImportUtil.importDictionary(
+                    file, BATCH_SIZE, batch -> {
+                        if (isCancelled()) {
+                            throw new CancellationException();
+                        }
+                        sourceWords[0] += batch.size();
+                        try {
+                            parsed.put(new Batch(sequence[0]++, batch, sourceWords[0]));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new CancellationException();
+                        }
+                        wordsRead.addAndGet(batch.size());
+                    }, fraction -> sourceFraction = fraction);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (!result.isSuccess() && !isCancelled()) {
+                fail(result.getError());
+                return;
+            }
+            // When cancelled, the batches already queued drain normally and the writer reports the cancellation
+            parseResult = result;
+            parseComplete = result.isSuccess();
+            for (int i = 0; i < normalizers; i++) {
+                parsed.put(END);
+            }
+        }
+
+        private void normalize() throws InterruptedException {
+            while (true) {
+                Batch batch = parsed.take();
+                if (batch == END) {
+                    normalized.put(END);
+                    return;
+                }
+                List<Word> words = new ArrayList<>(batch.words.size());
+                for (Word word : processSingleBatch(batch.words)) {
+                    Word normalizedWord = normalizeWord(word);
+                    if (normalizedWord != null) {
+                        words.add(normalizedWord);
+                    }
+                }
+                skipped.addAndGet(batch.words.size() - words.size());
+                normalized.put(new Batch(batch.sequence, words, batch.sourceWords));
+            }
+        }
+
+        /**
+         * Batches arrive from the normalizers out of order; they are released in source order so that
+         * the first occurrence of a word is the one kept. At most the normalized queue plus one batch per
+         * normalizer can be held back.
+         * <p>
+         * Only the words of released batches the writer has not finished are remembered; once a batch is
+         * written its words are found by exists instead, so memory stays bounded by the deduped queue
+         * rather than growing with the import.
+         */
+        private void dedupe() throws InterruptedException {
+            Map<Long, Batch> pending = new HashMap<>();
+            ArrayDeque<Batch> inFlight = new ArrayDeque<>();
+            Map<Word, Long> inFlightWords = new HashMap<>();
+            long next = 0;
+            int ended = 0;
+            while (ended < normalizers) {
+                Batch batch = normalized.take();
+                if (batch == END) {
+                    ended++;
+                    continue;
+                }
+                pending.put(batch.sequence, batch);
+                while ((batch = pending.remove(next)) != null) {
+                    if (next <= resumeAfterBatch) {
+                        // Committed by an earlier run
+                        skipped.addAndGet(batch.words.size());
+                        next++;
+                        continue;
+                    }
+                    forgetWritten(inFlight, inFlightWords);
+                    List<Word> unique = new ArrayList<>(batch.words.size());
+                    for (Word word : batch.words) {
+                        if (!inFlightWords.containsKey(word) && (exists == null || !exists.test(word))) {
+                            inFlightWords.put(word, next);
+                            unique.add(word);
+                        }
+                    }
+                    skipped.addAndGet(batch.words.size() - unique.size());
+                    if (!unique.isEmpty()) {
+                        Batch released = new Batch(next, unique, batch.sourceWords);
+                        inFlight.add(released);
+                        deduped.put(released);
+                    }
+                    next++;
+                }
+            }
+            deduped.put(END);
+        }
+
+        /**
+         * The writer returns only after a batch is persisted, so exists sees its words before they leave the window
+         */
+        private void forgetWritten(ArrayDeque<Batch> inFlight, Map<Word, Long> inFlightWords) {
+            long written = lastWritten;
+            while (!inFlight.isEmpty() && inFlight.peek().sequence <= written) {
+                Batch batch = inFlight.poll();
+                for (Word word : batch.words) {
+                    inFlightWords.remove(word, batch.sequence);
+                }
+            }
+        }
+
+        private void write() throws InterruptedException {
+            while (true) {
+                Batch batch = deduped.take();
+                // Every batch has been written: a late cancellation does not turn a finished import into a failure,
+                // but a parse cut short by one leaves the source unfinished
+                if (batch == END) {
+                    if (!parseComplete) {
+                        fail(CANCELLED);
+                        return;
+                    }
+                    report(true);
+                    return;
+                }
+                if (isCancelled()) {
+                    fail(CANCELLED);
+                    return;
+                }
+                writer.write(batch.sequence, batch.sourceWords, batch.words);
+                lastWritten = batch.sequence;
+                wordsWritten += batch.words.size();
+                report(false);
+            }
+        }
+
+        private void report(boolean finished) {
+            if (listener == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (!finished && now - lastReportNanos < TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MILLIS)) {
+                return;
+            }
+            lastReportNanos = now;
+            listener.accept(new ImportProgress(wordsRead.get(), wordsWritten, skipped.get(),
+                    TimeUnit.NANOSECONDS.toMillis(now - startNanos), sourceFraction,
+                    parsed.size(), normalized.size(), deduped.size(), finished));
+        }
+    }
+
+    private static final class Batch {
+        private final long sequence;
+        private final List<Word> words;
+        // Words read from the source up to the end of this batch
+        private final long sourceWords;
+
+        Batch(long sequence, List<Word> words, long sourceWords) {
+            this.sequence = sequence;
+            this.words = words;
+            this.sourceWords = sourceWords;
+        }
+    }
+
+    /**
+     * Normalizes both fields to NFC, turns control characters and whitespace runs into a single space and
+     * trims; returns null when either field ends up empty
+     */
+    private static Word normalizeWord(Word word) {
+        String headword = normalizeText(word.getWord());
+        String translation = normalizeText(word.getTranslation());
+        if (headword.isEmpty() || translation.isEmpty()) {
+            return null;
+        }
+        if (headword.equals(word.getWord()) && translation.equals(word.getTranslation())) {
+            return word;
+        }
+        return new Word(headword, translation);
+    }
+
+    private static String normalizeText(String text) {
+        if (text == null) {
+            return "";
+        }
+        if (!Normalizer.isNormalized(text, Normalizer.Form.NFC)) {
+            text = Normalizer.normalize(text, Normalizer.Form.NFC);
+        }
+        if (isClean(text)) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isBlank(c)) {
+                sb.append(c);
+            } else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == ' ') {
+            sb.setLength(length - 1);
+        }
+        return sb.toString();
+    }
+
+    // Most fields need no change and are returned without copying
+    private static boolean isClean(String text) {
+        int last = text.length() - 1;
+        for (int i = 0; i <= last; i++) {
+            char c = text.charAt(i);
+            if (isBlank(c) && (c != ' ' || i == 0 || i == last || text.charAt(i - 1) == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(char c) {
+        return Character.isWhitespace(c) || Character.isISOControl(c) || c == '\u00A0' || c == '\uFEFF';
+    }
+
     // Shutdown the executor service
     public static void shutdown() {
         executorService.shutdown();
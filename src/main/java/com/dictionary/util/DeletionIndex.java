@@ -0,0 +1,259 @@
+package com.dictionary.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SymSpell 风格的删除邻域索引
+ * 预先为每个词头生成删除 1~maxDistance 个字母后的变体，查询时只需生成查询词的删除变体
+ * 并做哈希查找，即可得到编辑距离邻域内的候选词头，无需遍历整个词表。
+ * 索引只追加：同一时刻只有一个线程写入，倒排表为 {@link AppendOnlyArray}，查询无需加锁。
+ * 从快照读入的部分（见 {@link #readFrom}）存放在只读的基本类型数组中，之后加入的词头仍进入哈希表。
+ */
+public class DeletionIndex {
+    private static final int DEFAULT_MAX_DISTANCE = 2;
+    // 只对前缀生成删除变体，控制长词条的变体数量
+    private static final int DEFAULT_PREFIX_LENGTH = 7;
+
+    private final int maxDistance;
+    private final int prefixLength;
+    // 删除变体 -> 词头
+    private final Map<String, AppendOnlyArray<String>> deletes = new ConcurrentHashMap<>();
+    // 从快照读入的只读部分，可为 null；其中的词头都先于 deletes 中的词头加入
+    private final Frozen frozen;
+
+    public DeletionIndex() {
+        this(DEFAULT_MAX_DISTANCE, DEFAULT_PREFIX_LENGTH);
+    }
+
+    public DeletionIndex(int maxDistance, int prefixLength) {
+        this(maxDistance, prefixLength, null);
+    }
+
+    private DeletionIndex(int maxDistance, int prefixLength, Frozen frozen) {
+        this.maxDistance = maxDistance;
+        this.prefixLength = prefixLength;
+        this.frozen = frozen;
+    }
+
+    /**
+     * 添加词头（调用方负责大小写折叠）
+     */
+    public void add(String term) {
+        for (String delete : generateDeletes(term)) {
+            AppendOnlyArray<String> bucket = deletes.get(delete);
+            deletes.put(delete, bucket == null ? AppendOnlyArray.of(term) : bucket.append(term));
+        }
+    }
+
+    /**
+     * 查找与查询词编辑距离在 maxDistance 邻域内的候选词头
+     */
+    public Set<String> lookup(String query) {
+        Set<String> candidates = new LinkedHashSet<>();
+        for (String delete : generateDeletes(query)) {
+            if (frozen != null) {
+                for (int record = frozen.first(hash(delete)); record >= 0; record = frozen.next[record]) {
+                    for (int i = frozen.starts[record]; i < frozen.starts[record + 1]; i++) {
+                        addCandidate(candidates, frozen.terms[frozen.ids[i]], query);
+                    }
+                }
+            }
+            AppendOnlyArray<String> bucket = deletes.get(delete);
+            if (bucket == null) continue;
+            for (int i = 0; i < bucket.size(); i++) {
+                addCandidate(candidates, bucket.get(i), query);
+            }
+        }
+        return candidates;
+    }
+
+    private void addCandidate(Set<String> candidates, String term, String query) {
+        // 长度差超过最大编辑距离的不可能在邻域内
+        if (Math.abs(term.length() - query.length()) <= maxDistance) {
+            candidates.add(term);
+        }
+    }
+
+    /**
+     * 判断词头是否会出现在 lookup(query) 的结果中（不要求词头已加入索引）
+     */
+    public boolean matches(String term, String query) {
+        if (Math.abs(term.length() - query.length()) > maxDistance) {
+            return false;
+        }
+        return !Collections.disjoint(generateDeletes(term), generateDeletes(query));
+    }
+
+    /**
+     * 写出索引：每个删除变体一条记录，变体以 64 位哈希表示，词头以其在 termIds 中的下标表示；
+     * 不在 termIds 中的词头（快照之后加入的）不写出
+     */
+    void writeTo(DataOutputStream out, Map<String, Integer> termIds) throws IOException {
+        out.writeInt(maxDistance);
+        out.writeInt(prefixLength);
+        int[] ids = new int[16];
+        if (frozen != null) {
+            for (int record = 0; record < frozen.hashes.length; record++) {
+                int size = 0;
+                for (int i = frozen.starts[record]; i < frozen.starts[record + 1]; i++) {
+                    Integer id = termIds.get(frozen.terms[frozen.ids[i]]);
+                    if (id != null) {
+                        if (size == ids.length) {
+                            ids = Arrays.copyOf(ids, size * 2);
+                        }
+                        ids[size++] = id;
+                    }
+                }
+                writeRecord(out, frozen.hashes[record], ids, size);
+            }
+        }
+        for (Map.Entry<String, AppendOnlyArray<String>> entry : deletes.entrySet()) {
+            AppendOnlyArray<String> bucket = entry.getValue();
+            if (ids.length < bucket.size()) {
+                ids = new int[bucket.size()];
+            }
+            int size = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                Integer id = termIds.get(bucket.get(i));
+                if (id != null) {
+                    ids[size++] = id;
+                }
+            }
+            writeRecord(out, hash(entry.getKey()), ids, size);
+        }
+        out.writeInt(0);
+    }
+
+    private static void writeRecord(DataOutputStream out, long hash, int[] ids, int size) throws IOException {
+        if (size == 0) {
+            return;
+        }
+        out.writeInt(size);
+        out.writeLong(hash);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(ids[i]);
+        }
+    }
+
+    /**
+     * 读取 {@link #writeTo} 写出的索引，不再生成删除变体，也不为每个变体创建对象
+     */
+    static DeletionIndex readFrom(ByteBuffer in, String[] terms) throws IOException {
+        int maxDistance = in.getInt();
+        int prefixLength = in.getInt();
+        long[] hashes = new long[1024];
+        int[] starts = new int[1025];
+        int[] ids = new int[4096];
+        int records = 0;
+        int total = 0;
+        for (int size = in.getInt(); size > 0; size = in.getInt()) {
+            if (records + 1 == hashes.length) {
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+                starts = Arrays.copyOf(starts, hashes.length + 1);
+            }
+            if (total + size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, total + size));
+            }
+            hashes[records] = in.getLong();
+            for (int i = 0; i < size; i++) {
+                int id = in.getInt();
+                if (id < 0 || id >= terms.length) {
+                    throw new IOException("删除邻域索引中的词头下标越界: " + id);
+                }
+                ids[total++] = id;
+            }
+            starts[++records] = total;
+        }
+        Frozen frozen = new Frozen(terms, Arrays.copyOf(hashes, records),
+                Arrays.copyOf(starts, records + 1), Arrays.copyOf(ids, total));
+        return new DeletionIndex(maxDistance, prefixLength, frozen);
+    }
+
+    /**
+     * 删除变体的 64 位 FNV-1a 哈希；只读部分以哈希代替变体字符串，冲突的概率可以忽略
+     */
+    private static long hash(String delete) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < delete.length(); i++) {
+            hash ^= delete.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private Set<String> generateDeletes(String term) {
+        String key = term.length() > prefixLength ? term.substring(0, prefixLength) : term;
+        Set<String> result = new HashSet<>();
+        result.add(key);
+        generateDeletes(key, 0, result);
+        return result;
+    }
+
+    private void generateDeletes(String word, int distance, Set<String> result) {
+        if (distance >= maxDistance || word.length() <= 1) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String delete = word.substring(0, i) + word.substring(i + 1);
+            // 已生成过的变体其后续删除也已生成
+            if (result.add(delete)) {
+                generateDeletes(delete, distance + 1, result);
+            }
+        }
+    }
+
+    /**
+     * 只读的删除邻域：记录 r 的词头下标为 ids[starts[r] .. starts[r + 1])，
+     * 按哈希开放寻址找到同一哈希的第一条记录，其余记录沿 next 按写出顺序相连
+     */
+    private static final class Frozen {
+        private final String[] terms;
+        private final long[] hashes;
+        private final int[] starts;
+        private final int[] ids;
+        private final int[] next;
+        // 记录编号 + 1，0 表示空槽
+        private final int[] table;
+        private final int mask;
+
+        Frozen(String[] terms, long[] hashes, int[] starts, int[] ids) {
+            this.terms = terms;
+            this.hashes = hashes;
+            this.starts = starts;
+            this.ids = ids;
+            this.next = new int[hashes.length];
+            int capacity = Integer.highestOneBit(Math.max(16, hashes.length * 2 - 1) << 1);
+            this.table = new int[capacity];
+            this.mask = capacity - 1;
+            // 倒序插入到链表头部，链表中的记录保持写出顺序
+            for (int record = hashes.length - 1; record >= 0; record--) {
+                int slot = slotOf(hashes[record]);
+                next[record] = table[slot] - 1;
+                table[slot] = record + 1;
+            }
+        }
+
+        /**
+         * 哈希为 hash 的第一条记录，不存在时返回 -1
+         */
+        int first(long hash) {
+            int slot = slotOf(hash);
+            return table[slot] - 1;
+        }
+
+        /**
+         * 线性探测，返回存放该哈希的槽位或第一个空槽
+         */
+        private int slotOf(long hash) {
+            int slot = (int) ((hash * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (table[slot] != 0 && hashes[table[slot] - 1] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
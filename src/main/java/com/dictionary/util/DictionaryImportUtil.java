@@ -1,28 +1,83 @@
 package com.dictionary.util;
 
 import com.dictionary.model.Word;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-
+import com.github.luben.zstd.ZstdInputStream;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.sql.*;
 
 public class DictionaryImportUtil {
-    
+
+    // Words handed to the batch consumer at a time when streaming
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
     public static class ImportResult {
         private final List<Word> words;
+        private final int wordCount;
         private final List<String> headers;
         private final Map<String, Integer> columnMap;
         private final String format;
         private final String error;
 
         public ImportResult(List<Word> words, List<String> headers, Map<String, Integer> columnMap, String format) {
+            this(words, words.size(), headers, columnMap, format);
+        }
+
+        /**
+         * Result of a streamed import: the words went to the batch consumer, only their count is kept
+         */
+        public ImportResult(int wordCount, List<String> headers, Map<String, Integer> columnMap, String format) {
+            this(null, wordCount, headers, columnMap, format);
+        }
+
+        private ImportResult(List<Word> words, int wordCount, List<String> headers, Map<String, Integer> columnMap, String format) {
             this.words = words;
+            this.wordCount = wordCount;
             this.headers = headers;
             this.columnMap = columnMap;
             this.format = format;
@@ -31,6 +86,7 @@ public class DictionaryImportUtil {
 
         public ImportResult(String error) {
             this.words = null;
+            this.wordCount = 0;
             this.headers = null;
             this.columnMap = null;
             this.format = null;
@@ -41,10 +97,17 @@ public class DictionaryImportUtil {
             return error == null;
         }
 
+        /**
+         * Imported words; null for a streamed import
+         */
         public List<Word> getWords() {
             return words;
         }
 
+        public int getWordCount() {
+            return wordCount;
+        }
+
         public List<String> getHeaders() {
             return headers;
         }
@@ -63,17 +126,47 @@ public class DictionaryImportUtil {
     }
 
     public static ImportResult importDictionary(File file) {
+        List<Word> words = new ArrayList<>();
+        ImportResult result = importDictionary(file, DEFAULT_BATCH_SIZE, words::addAll);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        return new ImportResult(words, result.getHeaders(), result.getColumnMap(), result.getFormat());
+    }
+
+    /**
+     * Streams the file: words are handed to the consumer in batches of up to batchSize as rows are read,
+     * so memory stays flat regardless of the file size. The batch list is not reused by the importer.
+     */
+    public static ImportResult importDictionary(File file, int batchSize, Consumer<List<Word>> batchConsumer) {
+        return importDictionary(file, batchSize, batchConsumer, null);
+    }
+
+    /**
+     * Streams the file like {@link #importDictionary(File, int, Consumer)}, reporting after each batch the
+     * fraction of the source read so far (0 to 1) to progress when the format allows an estimate:
+     * bytes read for CSV, rows against the sheet dimensions for XLSX/XLS, notes against the note count for Anki
+     *
+     * @param progress may be null
+     */
+    public static ImportResult importDictionary(File file, int batchSize, Consumer<List<Word>> batchConsumer,
+                                                DoubleConsumer progress) {
         String fileName = file.getName().toLowerCase();
-        
+        RowCollector collector = new RowCollector(batchSize, batchConsumer, progress);
+
         try {
             if (fileName.endsWith(".csv")) {
-                return importCSV(file);
+                importCSV(file, collector);
+                return collector.finish("CSV");
             } else if (fileName.endsWith(".xlsx")) {
-                return importExcel(file, true);
+                importXlsx(file, collector);
+                return collector.finish("XLSX");
             } else if (fileName.endsWith(".xls")) {
-                return importExcel(file, false);
+                importXls(file, collector);
+                return collector.finish("XLS");
             } else if (fileName.endsWith(".apkg") || fileName.endsWith(".colpkg")) {
-                return importAnki(file);
+                String error = importAnki(file, collector);
+                return error != null ? new ImportResult(error) : collector.finish("ANKI");
             } else {
                 return new ImportResult("Unsupported file format");
             }
@@ -82,29 +175,54 @@ public class DictionaryImportUtil {
         }
     }
 
-    private static ImportResult importCSV(File file) throws IOException {
-        List<Word> words = new ArrayList<>();
-        List<String> headers = new ArrayList<>();
-        Map<String, Integer> columnMap = new HashMap<>();
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-            
-            // Read headers
-            String headerLine = reader.readLine();
-            if (headerLine != null) {
-                String[] headerArray = headerLine.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-                for (int i = 0; i < headerArray.length; i++) {
-                    String header = headerArray[i].trim().replaceAll("^\"|\"$", "");
-                    headers.add(header);
-                    columnMap.put(header, i);
-                }
+    /**
+     * Receives the rows of the first sheet in order, detects the word and translation columns
+     * from the header row and batches the words for the consumer
+     */
+    private static final class RowCollector {
+        private final int batchSize;
+        private final Consumer<List<Word>> batchConsumer;
+        private final List<String> headers = new ArrayList<>();
+        private final Map<String, Integer> columnMap = new HashMap<>();
+        private int wordIndex = -1;
+        private int translationIndex = -1;
+        private List<Word> batch;
+        private int wordCount;
+        private final DoubleConsumer progress;
+        // Position in the source: bytes read when set, otherwise data rows against expectedRows
+        private DoubleSupplier position;
+        private long rows;
+        private long expectedRows;
+
+        RowCollector(int batchSize, Consumer<List<Word>> batchConsumer, DoubleConsumer progress) {
+            this.batchSize = Math.max(1, batchSize);
+            this.batchConsumer = batchConsumer;
+            this.batch = new ArrayList<>(this.batchSize);
+            this.progress = progress;
+        }
+
+        void setPosition(DoubleSupplier position) {
+            this.position = position;
+        }
+
+        /**
+         * Number of data rows in the source, when the format records it
+         */
+        void setExpectedRows(long expectedRows) {
+            this.expectedRows = expectedRows;
+        }
+
+        void header(String[] cells) {
+            for (int i = 0; i < cells.length; i++) {
+                String header = cells[i] != null ? cells[i].trim() : "";
+                headers.add(header);
+                columnMap.put(header, i);
             }
+            detectColumns();
+        }
 
+        private void detectColumns() {
             // Try to identify word and translation columns
-            int wordIndex = -1;
-            int translationIndex = -1;
-
             for (int i = 0; i < headers.size(); i++) {
                 String header = headers.get(i).toLowerCase();
                 if (header.contains("word") || header.contains("term") || header.contains("vocabulary")) {
@@ -119,158 +237,426 @@ public class DictionaryImportUtil {
                 wordIndex = 0;
                 translationIndex = 1;
             }
+        }
 
-            // Read data
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-                if (parts.length >= 2) {
-                    String word = parts[wordIndex].replaceAll("^\"|\"$", "").trim();
-                    String translation = parts[translationIndex].replaceAll("^\"|\"$", "").trim();
-                    if (!word.isEmpty() && !translation.isEmpty()) {
-                        words.add(new Word(word, translation));
+        /**
+         * A data row; missing cells are null
+         */
+        void row(String[] cells) {
+            rows++;
+            if (wordIndex == -1) {
+                // No header row
+                detectColumns();
+            }
+            if (cells.length >= 2 && cells.length > Math.max(wordIndex, translationIndex)
+                    && cells[wordIndex] != null && cells[translationIndex] != null) {
+                String word = cells[wordIndex].trim();
+                String translation = cells[translationIndex].trim();
+                if (!word.isEmpty() && !translation.isEmpty()) {
+                    batch.add(new Word(word, translation));
+                    if (batch.size() == batchSize) {
+                        flush();
                     }
                 }
             }
         }
 
-        return new ImportResult(words, headers, columnMap, "CSV");
+        private void flush() {
+            wordCount += batch.size();
+            batchConsumer.accept(batch);
+            batch = new ArrayList<>(batchSize);
+            if (progress != null) {
+                double fraction = position != null ? position.getAsDouble()
+                        : expectedRows > 0 ? (double) rows / expectedRows : -1;
+                if (fraction >= 0) {
+                    progress.accept(Math.min(1.0, fraction));
+                }
+            }
+        }
+
+        ImportResult finish(String format) {
+            if (!batch.isEmpty()) {
+                flush();
+            }
+            return new ImportResult(wordCount, headers, columnMap, format);
+        }
     }
 
-    private static ImportResult importExcel(File file, boolean isXlsx) throws IOException {
-        List<Word> words = new ArrayList<>();
-        List<String> headers = new ArrayList<>();
-        Map<String, Integer> columnMap = new HashMap<>();
-
-        try (InputStream is = new FileInputStream(file);
-             Workbook workbook = isXlsx ? new XSSFWorkbook(is) : new HSSFWorkbook(is)) {
-            
-            Sheet sheet = workbook.getSheetAt(0);
-            Row headerRow = sheet.getRow(0);
-
-            // Read headers
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                Cell cell = headerRow.getCell(i);
-                String header = cell != null ? cell.toString().trim() : "";
-                headers.add(header);
-                columnMap.put(header, i);
+    private static void importCSV(File file, RowCollector collector) throws IOException {
+        long length = file.length();
+        try (CountingInputStream is = new CountingInputStream(new FileInputStream(file))) {
+            if (length > 0) {
+                collector.setPosition(() -> (double) is.count / length);
             }
+            boolean[] first = {true};
+            CsvParser.parse(is, record -> {
+                if (first[0]) {
+                    first[0] = false;
+                    collector.header(record);
+                } else {
+                    collector.row(record);
+                }
+            });
+        }
+    }
 
-            // Try to identify word and translation columns
-            int wordIndex = -1;
-            int translationIndex = -1;
+    private static final class CountingInputStream extends FilterInputStream {
+        // Read by the collector on the same thread
+        private long count;
 
-            for (int i = 0; i < headers.size(); i++) {
-                String header = headers.get(i).toLowerCase();
-                if (header.contains("word") || header.contains("term") || header.contains("vocabulary")) {
-                    wordIndex = i;
-                } else if (header.contains("translation") || header.contains("meaning") || header.contains("definition")) {
-                    translationIndex = i;
-                }
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
             }
+            return b;
+        }
 
-            // If we couldn't identify columns, use first two columns
-            if (wordIndex == -1 || translationIndex == -1) {
-                wordIndex = 0;
-                translationIndex = 1;
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
             }
+            return read;
+        }
 
-            // Read data
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row != null) {
-                    Cell wordCell = row.getCell(wordIndex);
-                    Cell translationCell = row.getCell(translationIndex);
-                    
-                    if (wordCell != null && translationCell != null) {
-                        String word = wordCell.toString().trim();
-                        String translation = translationCell.toString().trim();
-                        
-                        if (!word.isEmpty() && !translation.isEmpty()) {
-                            words.add(new Word(word, translation));
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Reads the first sheet with the SAX event model: the sheet XML is parsed row by row against
+     * the read-only shared strings table, no workbook DOM is built
+     */
+    private static void importXlsx(File file, RowCollector collector) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Workbook contains no sheets");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, new XlsxRowHandler(collector), new DataFormatter(), false) {
+                    @Override
+                    public void startElement(String uri, String localName, String qName, Attributes attributes)
+                            throws SAXException {
+                        // <dimension ref="A1:B500"/> precedes the rows; the last row index is the data row count
+                        if ("dimension".equals(localName) && attributes.getValue("ref") != null) {
+                            String ref = attributes.getValue("ref");
+                            collector.setExpectedRows(new CellReference(ref.substring(ref.indexOf(':') + 1)).getRow());
                         }
+                        super.startElement(uri, localName, qName, attributes);
                     }
-                }
+                });
+                parser.parse(new InputSource(sheet));
             }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static final class XlsxRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final RowCollector collector;
+        private final RowBuffer row = new RowBuffer();
+
+        XlsxRowHandler(RowCollector collector) {
+            this.collector = collector;
         }
 
-        return new ImportResult(words, headers, columnMap, isXlsx ? "XLSX" : "XLS");
+        @Override
+        public void startRow(int rowNum) {
+            row.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            row.emit(rowNum, collector);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // The reference may be omitted, the cell then follows the previous one
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : row.size();
+            row.set(column, formattedValue);
+        }
     }
 
-    private static ImportResult importAnki(File file) throws IOException {
-        List<Word> words = new ArrayList<>();
-        List<String> headers = new ArrayList<>();
-        Map<String, Integer> columnMap = new HashMap<>();
-
-        try (ZipFile zipFile = new ZipFile(file)) {
-            // Find the SQLite database file
-            ZipEntry dbEntry = null;
-            Enumeration<? extends ZipEntry> entries = zipFile.entries();
-            
-            while (entries.hasMoreElements()) {
-                ZipEntry entry = entries.nextElement();
-                if (entry.getName().endsWith(".anki2")) {
-                    dbEntry = entry;
+    /**
+     * Reads the first sheet with the HSSF event API: records are processed as they are read
+     * from the file, no workbook DOM is built
+     */
+    private static void importXls(File file, RowCollector collector) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            XlsRowListener listener = new XlsRowListener(collector);
+            FormatTrackingHSSFListener formatListener =
+                    new FormatTrackingHSSFListener(new MissingRecordAwareHSSFListener(listener));
+            listener.formatListener = formatListener;
+
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(formatListener);
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+        }
+    }
+
+    private static final class XlsRowListener implements HSSFListener {
+        private final RowCollector collector;
+        private final RowBuffer row = new RowBuffer();
+        private FormatTrackingHSSFListener formatListener;
+        private SSTRecord sstRecord;
+        private int sheetIndex = -1;
+        // A string formula's value is in the StringRecord that follows it
+        private int formulaRow = -1;
+        private int formulaColumn = -1;
+
+        XlsRowListener(RowCollector collector) {
+            this.collector = collector;
+        }
+
+        @Override
+        public void processRecord(org.apache.poi.hssf.record.Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        sheetIndex++;
+                    }
+                    return;
+                case SSTRecord.sid:
+                    sstRecord = (SSTRecord) record;
+                    return;
+                case EOFRecord.sid:
+                    return;
+                case DimensionsRecord.sid:
+                    if (sheetIndex == 0) {
+                        // The last row is exclusive, row 0 is the header row
+                        collector.setExpectedRows(Math.max(0, ((DimensionsRecord) record).getLastRow() - 1));
+                    }
+                    return;
+                default:
+                    break;
+            }
+            // Only the first sheet is imported
+            if (sheetIndex != 0) {
+                return;
+            }
+
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid: {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    if (sstRecord != null) {
+                        row.set(label.getColumn(), sstRecord.getString(label.getSSTIndex()).toString());
+                    }
                     break;
                 }
+                case LabelRecord.sid: {
+                    LabelRecord label = (LabelRecord) record;
+                    row.set(label.getColumn(), label.getValue());
+                    break;
+                }
+                case NumberRecord.sid: {
+                    NumberRecord number = (NumberRecord) record;
+                    row.set(number.getColumn(), formatListener.formatNumberDateCell(number));
+                    break;
+                }
+                case BoolErrRecord.sid: {
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) {
+                        row.set(boolErr.getColumn(), boolErr.getBooleanValue() ? "TRUE" : "FALSE");
+                    }
+                    break;
+                }
+                case FormulaRecord.sid: {
+                    FormulaRecord formula = (FormulaRecord) record;
+                    int resultType = formula.getCachedResultType();
+                    if (resultType == CellType.STRING.getCode()) {
+                        formulaRow = formula.getRow();
+                        formulaColumn = formula.getColumn();
+                    } else if (resultType == CellType.NUMERIC.getCode()) {
+                        row.set(formula.getColumn(), formatListener.formatNumberDateCell(formula));
+                    } else if (resultType == CellType.BOOLEAN.getCode()) {
+                        row.set(formula.getColumn(), formula.getCachedBooleanValue() ? "TRUE" : "FALSE");
+                    }
+                    break;
+                }
+                case StringRecord.sid:
+                    if (formulaColumn != -1) {
+                        row.set(formulaColumn, ((StringRecord) record).getString());
+                        formulaRow = -1;
+                        formulaColumn = -1;
+                    }
+                    break;
+                default:
+                    if (record instanceof LastCellOfRowDummyRecord) {
+                        row.emit(((LastCellOfRowDummyRecord) record).getRow(), collector);
+                        row.clear();
+                    }
+                    break;
             }
+        }
+    }
+
+    /**
+     * Cell values of the row being read, indexed by column; reused across rows
+     */
+    private static final class RowBuffer {
+        private String[] cells = new String[8];
+        private int size;
 
-            if (dbEntry == null) {
-                return new ImportResult("No Anki database found in the package");
+        void set(int column, String value) {
+            if (column >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
             }
+            cells[column] = value;
+            size = Math.max(size, column + 1);
+        }
 
-            // Extract the database to a temporary file
-            File tempDb = File.createTempFile("anki", ".db");
-            tempDb.deleteOnExit();
+        int size() {
+            return size;
+        }
 
-            try (InputStream is = zipFile.getInputStream(dbEntry);
-                 FileOutputStream fos = new FileOutputStream(tempDb)) {
-                byte[] buffer = new byte[1024];
-                int length;
-                while ((length = is.read(buffer)) > 0) {
-                    fos.write(buffer, 0, length);
-                }
+        void clear() {
+            Arrays.fill(cells, 0, size, null);
+            size = 0;
+        }
+
+        /**
+         * Row 0 is the header row, as with the workbook model
+         */
+        void emit(int rowNum, RowCollector collector) {
+            String[] values = Arrays.copyOf(cells, size);
+            if (rowNum == 0) {
+                collector.header(values);
+            } else {
+                collector.row(values);
             }
+        }
+    }
 
-            // Connect to the SQLite database and process data
-            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + tempDb.getAbsolutePath())) {
-                // Get field names from the first note
-                try (Statement stmt = conn.createStatement();
-                     ResultSet rs = stmt.executeQuery("SELECT id, flds FROM notes ORDER BY id DESC LIMIT 1")) {
-                    
-                    if (rs.next()) {
-                        String[] fields = rs.getString("flds").split("\u001F");
-                        for (int i = 0; i < fields.length; i++) {
-                            headers.add("Field " + (i + 1));
-                            columnMap.put("Field " + (i + 1), i);
+    /**
+     * Collection databases in order of preference: newer packages keep the real collection in
+     * collection.anki21b (zstd-compressed) or collection.anki21, next to a placeholder collection.anki2
+     */
+    private static final String[] ANKI_COLLECTIONS = {"collection.anki21b", "collection.anki21", "collection.anki2"};
+    private static final int EXTRACT_BUFFER_SIZE = 1 << 20;
+    private static final int ANKI_FETCH_SIZE = 1000;
+
+    /**
+     * @return an error message, or null on success
+     */
+    private static String importAnki(File file, RowCollector collector) throws IOException {
+        Path tempDb = Files.createTempFile("anki", ".db");
+        try {
+            try (ZipFile zipFile = new ZipFile(file)) {
+                // Find the SQLite database file
+                ZipEntry dbEntry = findAnkiCollection(zipFile);
+                if (dbEntry == null) {
+                    return "No Anki database found in the package";
+                }
+
+                // Extract the database to a temporary file
+                try (InputStream is = openAnkiCollection(zipFile, dbEntry);
+                     FileChannel out = FileChannel.open(tempDb, StandardOpenOption.WRITE,
+                             StandardOpenOption.TRUNCATE_EXISTING)) {
+                    byte[] buffer = new byte[EXTRACT_BUFFER_SIZE];
+                    int length;
+                    while ((length = is.readNBytes(buffer, 0, buffer.length)) > 0) {
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, length);
+                        while (chunk.hasRemaining()) {
+                            out.write(chunk);
                         }
                     }
-                } catch (SQLException e) {
-                    return new ImportResult("Failed to read Anki note fields: " + e.getMessage());
                 }
+            }
+            return readAnkiNotes(tempDb, collector);
+        } finally {
+            Files.deleteIfExists(tempDb);
+        }
+    }
 
-                // Get all notes
-                try (Statement stmt = conn.createStatement();
-                     ResultSet rs = stmt.executeQuery("SELECT flds FROM notes")) {
-                    
+    private static ZipEntry findAnkiCollection(ZipFile zipFile) {
+        for (String name : ANKI_COLLECTIONS) {
+            ZipEntry entry = zipFile.getEntry(name);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.getName().endsWith(".anki2")) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static InputStream openAnkiCollection(ZipFile zipFile, ZipEntry entry) throws IOException {
+        InputStream is = zipFile.getInputStream(entry);
+        if (entry.getName().endsWith(".anki21b")) {
+            return new ZstdInputStream(is);
+        }
+        return is;
+    }
+
+    /**
+     * Reads the notes with a forward-only cursor, rows are handed to the collector as they are fetched
+     */
+    private static String readAnkiNotes(Path db, RowCollector collector) {
+        // Connect to the SQLite database and process data
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + db.toAbsolutePath())) {
+            // Get field names from the first note
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id, flds FROM notes ORDER BY id DESC LIMIT 1")) {
+
+                if (rs.next()) {
+                    String[] fields = rs.getString("flds").split("\u001F");
+                    String[] headers = new String[fields.length];
+                    for (int i = 0; i < fields.length; i++) {
+                        headers[i] = "Field " + (i + 1);
+                    }
+                    collector.header(headers);
+                }
+            } catch (SQLException e) {
+                return "Failed to read Anki note fields: " + e.getMessage();
+            }
+
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM notes")) {
+                if (rs.next()) {
+                    collector.setExpectedRows(rs.getLong(1));
+                }
+            } catch (SQLException e) {
+                return "Failed to count Anki notes: " + e.getMessage();
+            }
+
+            // Get all notes
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(ANKI_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery("SELECT flds FROM notes")) {
                     while (rs.next()) {
-                        String[] fields = rs.getString("flds").split("\u001F");
-                        if (fields.length >= 2) {
-                            String word = fields[0].trim();
-                            String translation = fields[1].trim();
-                            if (!word.isEmpty() && !translation.isEmpty()) {
-                                words.add(new Word(word, translation));
-                            }
-                        }
+                        collector.row(rs.getString(1).split("\u001F"));
                     }
-                } catch (SQLException e) {
-                    return new ImportResult("Failed to read Anki notes: " + e.getMessage());
                 }
             } catch (SQLException e) {
-                return new ImportResult("Failed to connect to Anki database: " + e.getMessage());
+                return "Failed to read Anki notes: " + e.getMessage();
             }
+        } catch (SQLException e) {
+            return "Failed to connect to Anki database: " + e.getMessage();
         }
 
-        return new ImportResult(words, headers, columnMap, "ANKI");
+        return null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.dictionary.util;
+
+import com.dictionary.model.Word;
+
+/**
+ * 词条存储：按存储编号保存词头、释义和简化释义
+ * 只追加，同一时刻只有一个线程写入；读取方只访问已发布的编号（经由 volatile 发布的版本得到），无需加锁。
+ * 查询路径按编号读取所需的字段，{@link Word} 对象只在结果返回给调用方时由 {@link #getWord} 创建。
+ */
+public interface EntryStore {
+    /**
+     * 按系统属性 dictionary.entryStore 创建空的存储：offheap 为堆外存储 {@link OffHeapEntryStore}，
+     * 其余（默认）为堆上的 {@link ArenaEntryStore}。堆外存储只移出词条本身，索引仍在堆上
+     */
+    static EntryStore create() {
+        if ("offheap".equalsIgnoreCase(System.getProperty("dictionary.entryStore"))) {
+            return new OffHeapEntryStore();
+        }
+        return new ArenaEntryStore();
+    }
+
+    /**
+     * 加入词条，返回存储编号（从 0 开始连续分配）
+     */
+    int add(Word word);
+
+    /**
+     * 已加入的词条数
+     */
+    int size();
+
+    String getHeadword(int entry);
+
+    String getTranslation(int entry);
+
+    /**
+     * 简化释义，同 {@link Word#getSimplifiedTranslation()}；预先保存，查询时无需再做正则处理
+     */
+    String getSimplifiedTranslation(int entry);
+
+    /**
+     * 创建词条对象
+     */
+    default Word getWord(int entry) {
+        return new Word(getHeadword(entry), getTranslation(entry));
+    }
+}
@@ -6,13 +6,18 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 public class FileIOUtil {
     private static final String WORD_FILE = "EnWords.csv";
     private static final String FAVORITES_FILE = "favorites.csv";
     private static final String APP_DIR = ".dictionary";
+    private static final String BINARY_EXTENSION = ".dict";
+    private static final String INDEX_SNAPSHOT_EXTENSION = ".idx";
     
     public static final String CSV_PATH = System.getProperty("user.dir") + File.separator + "src" + File.separator + "main" + File.separator + "resources" + File.separator + WORD_FILE;
     public static final String FAVORITES_PATH = System.getProperty("user.home") + File.separator + APP_DIR + File.separator + FAVORITES_FILE;
@@ -28,15 +33,13 @@ public class FileIOUtil {
 
     public static List<Word> readDictionaryFile(String filename) {
         List<Word> words = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8))) {
-            String line;
-            br.readLine(); // Skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+        try {
+            List<String[]> records = CsvParser.parseFile(Paths.get(filename));
+            // 第一条记录为表头
+            for (int i = 1; i < records.size(); i++) {
+                String[] parts = records.get(i);
                 if (parts.length == 2) {
-                    String word = parts[0].replaceAll("^\"|\"$", "");
-                    String translation = parts[1].replaceAll("^\"|\"$", "");
-                    words.add(new Word(word, translation));
+                    words.add(new Word(parts[0], parts[1]));
                 }
             }
         } catch (IOException e) {
@@ -45,21 +48,131 @@ public class FileIOUtil {
         return words;
     }
 
+    /**
+     * 打开 CSV 词典对应的二进制词典（应用程序目录下，文件名带有 CSV 的长度和修改时间）
+     * 不存在或已损坏时解析 CSV 重新生成；无法写入时退回在内存中编码。
+     * 打开已有文件时只检查文件头、长度和源文件的长度与修改时间，内容的 CRC32 在后台线程校验，
+     * 不一致时删除该文件及按其校验和建立的索引快照，下次启动重新生成；刚写入的文件由内存中的内容生成，不再校验。
+     * CSV 改变后生成的是另一个文件，不会替换仍被映射（本进程或其他实例）的旧文件；旧文件在生成新文件后尽量删除。
+     */
+    public static BinaryDictionaryFile openDictionaryFile(String filename) throws IOException {
+        Path csv = Paths.get(filename);
+        long length = Files.size(csv);
+        long modified = Files.getLastModifiedTime(csv).toMillis();
+        Path binary = binaryPathFor(csv, length, modified);
+        if (Files.exists(binary)) {
+            try {
+                BinaryDictionaryFile file = BinaryDictionaryFile.open(binary);
+                if (file.isCurrent(length, modified)) {
+                    verifyInBackground(file, binary, indexSnapshotPathFor(filename));
+                    return file;
+                }
+            } catch (IOException e) {
+                System.err.println("二进制词典文件无效，重新生成: " + e.getMessage());
+            }
+        }
+        List<Word> words = readDictionaryFile(filename);
+        try {
+            BinaryDictionaryFile.write(binary, words, length, modified);
+            deleteStaleBinaries(csv, binary);
+            return BinaryDictionaryFile.open(binary);
+        } catch (IOException e) {
+            System.err.println("写入二进制词典文件失败: " + e.getMessage());
+            return BinaryDictionaryFile.of(words);
+        }
+    }
+
+    private static void verifyInBackground(BinaryDictionaryFile file, Path binary, Path snapshot) {
+        Thread thread = new Thread(() -> {
+            try {
+                file.verify();
+            } catch (IOException e) {
+                System.err.println("二进制词典文件已损坏，下次启动时重新生成: " + e.getMessage());
+                try {
+                    // 快照以文件头中的校验和为键，重新生成的文件内容正确时仍会匹配，须一并删除
+                    Files.deleteIfExists(snapshot);
+                    Files.deleteIfExists(binary);
+                } catch (IOException deleteError) {
+                    // 仍被映射而无法删除时留到下次，下次打开仍会校验失败
+                    System.err.println("删除损坏的二进制词典文件失败: " + deleteError.getMessage());
+                }
+            }
+        }, "dictionary-verify");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static Path binaryPathFor(Path csv, long length, long modified) {
+        return Paths.get(System.getProperty("user.home"), APP_DIR,
+                baseName(csv) + "-" + Long.toHexString(length) + "-" + Long.toHexString(modified) + BINARY_EXTENSION);
+    }
+
+    /**
+     * 删除同一 CSV 以前生成的二进制词典；仍被映射而无法删除的留到下次
+     */
+    private static void deleteStaleBinaries(Path csv, Path current) {
+        String base = baseName(csv);
+        String pattern = Pattern.quote(base) + "-[0-9a-f]+-[0-9a-f]+" + Pattern.quote(BINARY_EXTENSION);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(current.getParent(), base + "-*" + BINARY_EXTENSION)) {
+            for (Path path : stale) {
+                if (!path.equals(current) && path.getFileName().toString().matches(pattern)) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException e) {
+                        System.err.println("删除旧的二进制词典文件失败: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("清理二进制词典文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 词典文件对应的索引快照路径（应用程序目录下同名、扩展名为 .idx 的文件）
+     */
+    public static Path indexSnapshotPathFor(String filename) {
+        return Paths.get(System.getProperty("user.home"), APP_DIR,
+                baseName(Paths.get(filename)) + INDEX_SNAPSHOT_EXTENSION);
+    }
+
+    private static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
     public static void appendWordToFile(String filename, Word word) {
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename, true), StandardCharsets.UTF_8))) {
-            bw.write("\"" + word.getWord() + "\",\"" + word.getTranslation() + "\"");
+            bw.write(CsvParser.formatRecord(word.getWord(), word.getTranslation()));
             bw.newLine();
         } catch (IOException e) {
             System.err.println("添加单词失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 将一批词条追加到文件末尾，不重写已有内容
+     * 作为导入的写入方使用，写入失败时抛出异常使导入失败，不记录该批次的检查点
+     * @throws UncheckedIOException 写入失败
+     */
+    public static void appendWordsToFile(String filename, List<Word> words) {
+        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename, true), StandardCharsets.UTF_8))) {
+            for (Word word : words) {
+                bw.write(CsvParser.formatRecord(word.getWord(), word.getTranslation()));
+                bw.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("追加词条失败: " + e.getMessage(), e);
+        }
+    }
+
     public static void updateDictionaryFile(String filename, List<Word> words) {
         try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8))) {
             bw.write("\"word\",\"translation\"");
             bw.newLine();
             for (Word word : words) {
-                bw.write("\"" + word.getWord() + "\",\"" + word.getTranslation() + "\"");
+                bw.write(CsvParser.formatRecord(word.getWord(), word.getTranslation()));
                 bw.newLine();
             }
         } catch (IOException e) {
@@ -10,6 +10,21 @@ public class FuzzyMatchUtil {
     
     // 键盘邻居映射
     private static final Map<Character, Set<Character>> KEYBOARD_NEIGHBORS = new HashMap<>();
+    // 替换代价表（ASCII 范围内）：相同或键盘相邻的字母为 0，其余为 1
+    private static final byte[][] SUBSTITUTION_COST = new byte[128][128];
+    // 超过该长度的字符串按有限的最大编辑距离计算
+    private static final int LONG_STRING_LENGTH = 30;
+    private static final int LONG_STRING_MAX_DISTANCE = 15;
+    // 每个线程复用的编辑距离滚动行（前两行和当前行，转置需要前两行）
+    private static final ThreadLocal<int[][]> EDIT_ROWS = ThreadLocal.withInitial(() -> new int[3][LONG_STRING_LENGTH + 1]);
+    // 每个线程复用的 bigram 缓冲区
+    private static final ThreadLocal<int[]> GRAM_SCRATCH = ThreadLocal.withInitial(() -> new int[LONG_STRING_LENGTH + 2]);
+    // 拼写错误模式中出现的片段（编号即在掩码中的位），以及按首字母分组的片段编号
+    private static final String[] PATTERN_FRAGMENTS;
+    private static final int[][] FRAGMENTS_BY_FIRST_CHAR = new int[128][];
+    // 每条拼写错误模式两侧片段的编号
+    private static final int[] PATTERN_LEFT;
+    private static final int[] PATTERN_RIGHT;
     
     static {
         // 初始化常见拼写错误映射
@@ -80,6 +95,112 @@ public class FuzzyMatchUtil {
         KEYBOARD_NEIGHBORS.put('b', new HashSet<>(Arrays.asList('g', 'h', 'n', 'v')));
         KEYBOARD_NEIGHBORS.put('n', new HashSet<>(Arrays.asList('h', 'j', 'm', 'b')));
         KEYBOARD_NEIGHBORS.put('m', new HashSet<>(Arrays.asList('j', 'k', 'n')));
+
+        // 将拼写错误模式编号为片段掩码，匹配时只需扫描一遍字符串
+        List<String> fragments = new ArrayList<>();
+        PATTERN_LEFT = new int[COMMON_MISSPELLINGS.size()];
+        PATTERN_RIGHT = new int[COMMON_MISSPELLINGS.size()];
+        int patternCount = 0;
+        for (Map.Entry<String, String> pattern : COMMON_MISSPELLINGS.entrySet()) {
+            for (String fragment : Arrays.asList(pattern.getKey(), pattern.getValue())) {
+                if (!fragments.contains(fragment)) {
+                    fragments.add(fragment);
+                }
+            }
+            PATTERN_LEFT[patternCount] = fragments.indexOf(pattern.getKey());
+            PATTERN_RIGHT[patternCount] = fragments.indexOf(pattern.getValue());
+            patternCount++;
+        }
+        if (fragments.size() > Long.SIZE) {
+            throw new IllegalStateException("拼写错误模式片段过多: " + fragments.size());
+        }
+        PATTERN_FRAGMENTS = fragments.toArray(new String[0]);
+        for (int id = 0; id < PATTERN_FRAGMENTS.length; id++) {
+            char first = PATTERN_FRAGMENTS[id].charAt(0);
+            int[] ids = FRAGMENTS_BY_FIRST_CHAR[first];
+            ids = ids == null ? new int[1] : Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = id;
+            FRAGMENTS_BY_FIRST_CHAR[first] = ids;
+        }
+
+        // 初始化替换代价表
+        for (char c1 = 0; c1 < 128; c1++) {
+            for (char c2 = 0; c2 < 128; c2++) {
+                SUBSTITUTION_COST[c1][c2] = (byte) (c1 == c2 || areKeyboardNeighbors(c1, c2) ? 0 : 1);
+            }
+        }
+    }
+
+    /**
+     * 预处理后的查询：小写化文本及其 q-gram、音素编码和位并行编辑距离的匹配掩码，同一次查询中对所有候选复用
+     */
+    public static final class Query {
+        private final String text;
+        private final int[] bigrams;
+        private final String phoneticCode;
+        // 候选字符 c -> 查询中可与 c 零代价替换（相同或键盘相邻）的位置；查询过长或含非 ASCII 字符时为 null
+        private final long[] matchMasks;
+        // 候选字符 c -> 查询中与 c 相同的位置，用于判断转置
+        private final long[] exactMasks;
+        // 查询包含的拼写错误模式片段
+        private final long patternMask;
+        // 字符 c 在查询中以双写形式出现的次数（仅 ASCII 查询）
+        private final int[] doubleCounts;
+
+        private Query(String text) {
+            this.text = text;
+            this.bigrams = bigrams(text);
+            this.phoneticCode = FuzzyMatchUtil.getPhoneticCode(text);
+
+            boolean bitParallel = !text.isEmpty() && text.length() <= Long.SIZE;
+            for (int i = 0; i < text.length() && bitParallel; i++) {
+                bitParallel = text.charAt(i) < 128;
+            }
+            if (bitParallel) {
+                matchMasks = new long[128];
+                exactMasks = new long[128];
+                for (int i = 0; i < text.length(); i++) {
+                    char q = text.charAt(i);
+                    exactMasks[q] |= 1L << i;
+                    for (char c = 0; c < 128; c++) {
+                        if (SUBSTITUTION_COST[c][q] == 0) {
+                            matchMasks[c] |= 1L << i;
+                        }
+                    }
+                }
+            } else {
+                matchMasks = null;
+                exactMasks = null;
+            }
+
+            patternMask = patternMask(text);
+            if (bitParallel) {
+                doubleCounts = new int[128];
+                for (int i = 1; i < text.length(); i++) {
+                    if (text.charAt(i) == text.charAt(i - 1)) {
+                        doubleCounts[text.charAt(i)]++;
+                    }
+                }
+            } else {
+                doubleCounts = null;
+            }
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int[] getBigrams() {
+            return bigrams;
+        }
+
+        public String getPhoneticCode() {
+            return phoneticCode;
+        }
+    }
+
+    public static Query prepare(String text) {
+        return new Query(text.toLowerCase());
     }
 
     /**
@@ -98,12 +219,152 @@ public class FuzzyMatchUtil {
             return 1.0;
         }
 
+        return weightedSimilarity(s1, getPhoneticCode(s1), s2, getPhoneticCode(s2),
+                normalizedEditDistance(s1, s2), qgramSimilarity(s1, s2));
+    }
+
+    /**
+     * 使用索引中预先算好的音素编码和 q-gram 相似度计算综合相似度
+     * @param term 已小写化的词头
+     * @param termCode 词头的音素编码（见 {@link PhoneticIndex}）
+     * @param qgramSim 来自 {@link QGramIndex} 的 q-gram 相似度，或 {@link #qgramSimilarity(String, Query)} 的结果
+     */
+    public static double calculateSimilarity(String term, String termCode, Query query, double qgramSim) {
+        if (term.equals(query.text)) {
+            return 1.0;
+        }
+        return fusedSimilarity(term, termCode, query, qgramSim, false);
+    }
+
+    /**
+     * 同 {@link #calculateSimilarity(String, String, Query, double)}，q-gram 相似度在同一遍扫描中计算
+     */
+    public static double calculateSimilarity(String term, String termCode, Query query) {
+        if (term.equals(query.text)) {
+            return 1.0;
+        }
+        return fusedSimilarity(term, termCode, query, 0.0, true);
+    }
+
+    /**
+     * 单遍计算四项相似度：一次遍历词头即完成位并行编辑距离、拼写错误模式片段、双写字母和 bigram 的统计，
+     * 只使用查询中预先算好的掩码和线程内复用的缓冲区，不创建对象。结果与分别计算四项指标完全相同。
+     * 查询过长或含非 ASCII 字符时退回分别计算。
+     */
+    private static double fusedSimilarity(String term, String termCode, Query query, double qgramSim, boolean computeQgram) {
+        if (query.matchMasks == null) {
+            return weightedSimilarity(term, termCode, query.text, query.phoneticCode, normalizedEditDistance(term, query),
+                    computeQgram ? qgramSimilarity(term, query) : qgramSim);
+        }
+
+        String text = query.text;
+        int n = term.length();
+        long[] matchMasks = query.matchMasks;
+        long[] exactMasks = query.exactMasks;
+        int[] doubleCounts = query.doubleCounts;
+        long highBit = 1L << (text.length() - 1);
+        long vp = -1L;
+        long vn = 0L;
+        long d0 = 0L;
+        long prevExact = 0L;
+        int distance = text.length();
+        long termPatterns = 0L;
+        int doubles = 0;
+        int[] grams = GRAM_SCRATCH.get();
+        if (grams.length < n + 1) {
+            grams = new int[Math.max(n + 1, grams.length * 2)];
+            GRAM_SCRATCH.set(grams);
+        }
+        int gramCount = 0;
+        char prev = '#';
+
+        for (int j = 0; j < n; j++) {
+            char c = term.charAt(j);
+            if (c >= 128) {
+                return weightedSimilarity(term, termCode, text, query.phoneticCode, normalizedEditDistance(term, text),
+                        computeQgram ? qgramSimilarity(term, query) : qgramSim);
+            }
+
+            // 位并行编辑距离（见 bitParallelDistance）
+            long match = matchMasks[c];
+            long exact = exactMasks[c];
+            long transposition = (((~d0) & exact) << 1) & prevExact;
+            d0 = (((match & vp) + vp) ^ vp) | match | vn | transposition;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & highBit) != 0) {
+                distance++;
+            } else if ((hn & highBit) != 0) {
+                distance--;
+            }
+            long shifted = (hp << 1) | 1L;
+            vn = shifted & d0;
+            vp = (hn << 1) | ~(shifted | d0);
+            prevExact = exact;
+
+            // 拼写错误模式片段
+            int[] fragmentIds = FRAGMENTS_BY_FIRST_CHAR[c];
+            if (fragmentIds != null) {
+                for (int id : fragmentIds) {
+                    if (term.startsWith(PATTERN_FRAGMENTS[id], j)) {
+                        termPatterns |= 1L << id;
+                    }
+                }
+            }
+
+            // 双写字母
+            if (j > 0 && c == prev) {
+                doubles += doubleCounts[c];
+            }
+
+            // 带 # 边界的去重 bigram
+            int gram = (prev << 16) | c;
+            if (indexOf(grams, gramCount, gram) < 0) {
+                grams[gramCount++] = gram;
+            }
+            prev = c;
+        }
+        int lastGram = (prev << 16) | '#';
+        if (indexOf(grams, gramCount, lastGram) < 0) {
+            grams[gramCount++] = lastGram;
+        }
+
+        int maxLen = Math.max(n, text.length());
+        double editDistSim = distance > maxEditDistance(term, text) ? 0.0 : 1.0 - (double) distance / maxLen;
+
+        double commonPatternSim = patternPairSimilarity(termPatterns, query.patternMask);
+        for (int i = 0; i < doubles; i++) {
+            commonPatternSim += 0.3;
+        }
+        commonPatternSim = edgeSimilarity(term, text, commonPatternSim);
+
+        if (computeQgram) {
+            if (n < 2 || text.length() < 2) {
+                qgramSim = editDistSim;
+            } else {
+                int[] queryGrams = query.bigrams;
+                int common = 0;
+                for (int i = 0; i < gramCount; i++) {
+                    if (indexOf(queryGrams, queryGrams.length, grams[i]) >= 0) {
+                        common++;
+                    }
+                }
+                qgramSim = qgramSimilarity(grams, gramCount, queryGrams, queryGrams.length, common);
+            }
+        }
+
+        return combine(phoneticSimilarity(termCode, query.phoneticCode), editDistSim, commonPatternSim, qgramSim);
+    }
+
+    private static double weightedSimilarity(String s1, String code1, String s2, String code2,
+                                             double editDistSim, double qgramSim) {
         // 计算各种相似度指标
-        double phoneticSim = phoneticSimilarity(s1, s2);
-        double editDistSim = normalizedEditDistance(s1, s2);
+        double phoneticSim = phoneticSimilarity(code1, code2);
         double commonPatternSim = commonPatternSimilarity(s1, s2);
-        double qgramSim = qgramSimilarity(s1, s2, 2);
+        return combine(phoneticSim, editDistSim, commonPatternSim, qgramSim);
+    }
 
+    private static double combine(double phoneticSim, double editDistSim, double commonPatternSim, double qgramSim) {
         // 调整权重
         return 0.35 * phoneticSim +  // 增加音素相似度的权重
                0.35 * editDistSim +   // 增加编辑距离的权重
@@ -112,12 +373,9 @@ public class FuzzyMatchUtil {
     }
 
     /**
-     * 计算音素相似度
+     * 计算音素相似度（参数为两者的音素编码）
      */
-    private static double phoneticSimilarity(String s1, String s2) {
-        String p1 = getPhoneticCode(s1);
-        String p2 = getPhoneticCode(s2);
-        
+    private static double phoneticSimilarity(String p1, String p2) {
         if (p1.equals(p2)) {
             return 1.0;
         }
@@ -138,7 +396,7 @@ public class FuzzyMatchUtil {
     /**
      * 改进的音素编码实现
      */
-    private static String getPhoneticCode(String s) {
+    public static String getPhoneticCode(String s) {
         if (s.isEmpty()) return "";
         
         StringBuilder code = new StringBuilder();
@@ -177,69 +435,160 @@ public class FuzzyMatchUtil {
 
     /**
      * 优化的编辑距离相似度
+     * 长字符串只在编辑距离不超过 LONG_STRING_MAX_DISTANCE 时计算真实距离，超过时视为不相似
      */
     private static double normalizedEditDistance(String s1, String s2) {
-        if (s1.length() > 30 || s2.length() > 30) {
-            // 对于长字符串，使用简化的计算
-            return simplifiedEditDistance(s1, s2);
+        int maxLen = Math.max(s1.length(), s2.length());
+        int maxDistance = maxEditDistance(s1, s2);
+        int distance = editDistance(s1, s2, maxDistance);
+        if (distance > maxDistance) {
+            return 0.0;
         }
-        
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
+        return 1.0 - (double) distance / maxLen;
+    }
+
+    /**
+     * 词头与预处理查询的编辑距离相似度，结果与 {@link #normalizedEditDistance(String, String)} 相同
+     * 查询不超过 64 个字符且两者均为 ASCII 时使用位并行算法，否则退回动态规划
+     */
+    private static double normalizedEditDistance(String term, Query query) {
+        if (query.matchMasks == null) {
+            return normalizedEditDistance(term, query.text);
         }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
+        int distance = bitParallelDistance(term, query);
+        if (distance < 0) {
+            return normalizedEditDistance(term, query.text);
         }
-        
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
+        int maxLen = Math.max(term.length(), query.text.length());
+        if (distance > maxEditDistance(term, query.text)) {
+            return 0.0;
+        }
+        return 1.0 - (double) distance / maxLen;
+    }
+
+    private static int maxEditDistance(String s1, String s2) {
+        int maxLen = Math.max(s1.length(), s2.length());
+        if (s1.length() > LONG_STRING_LENGTH || s2.length() > LONG_STRING_LENGTH) {
+            return Math.min(maxLen, LONG_STRING_MAX_DISTANCE);
+        }
+        return maxLen;
+    }
+
+    /**
+     * Myers / Hyyrö 位并行编辑距离（含相邻字母转置），代价模型与 {@link #editDistance} 相同
+     * 查询的每个位置对应一位，逐个处理词头字符，每个字符只需常数次位运算
+     * @return 编辑距离；词头含非 ASCII 字符时返回 -1
+     */
+    static int bitParallelDistance(String term, Query query) {
+        int m = query.text.length();
+        long[] matchMasks = query.matchMasks;
+        long[] exactMasks = query.exactMasks;
+        long highBit = 1L << (m - 1);
+        long vp = -1L;
+        long vn = 0L;
+        long d0 = 0L;
+        long prevExact = 0L;
+        int distance = m;
+
+        for (int j = 0; j < term.length(); j++) {
+            char c = term.charAt(j);
+            if (c >= 128) {
+                return -1;
+            }
+            long match = matchMasks[c];
+            long exact = exactMasks[c];
+            // 转置：查询[i-1] == 词头[j] 且 查询[i] == 词头[j-1]
+            long transposition = (((~d0) & exact) << 1) & prevExact;
+            d0 = (((match & vp) + vp) ^ vp) | match | vn | transposition;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & highBit) != 0) {
+                distance++;
+            } else if ((hn & highBit) != 0) {
+                distance--;
+            }
+            long shifted = (hp << 1) | 1L;
+            vn = shifted & d0;
+            vp = (hn << 1) | ~(shifted | d0);
+            prevExact = exact;
+        }
+        return distance;
+    }
+
+    /**
+     * 带转置的编辑距离（Damerau-Levenshtein 的 OSA 形式），键盘相邻字母的替换不计代价
+     * 只计算对角线两侧 maxDistance 宽的带，某一行的最小值超过 maxDistance 时提前结束
+     * @return 编辑距离；超过 maxDistance 时返回 maxDistance + 1
+     */
+    static int editDistance(String s1, String s2, int maxDistance) {
+        int len1 = s1.length();
+        int len2 = s2.length();
+        int over = maxDistance + 1;
+        if (Math.abs(len1 - len2) > maxDistance) {
+            return over;
+        }
+
+        int[][] rows = EDIT_ROWS.get();
+        if (rows[0].length <= len2) {
+            rows = new int[3][Math.max(len2 + 1, rows[0].length * 2)];
+            EDIT_ROWS.set(rows);
+        }
+        int[] prev2 = rows[0];
+        int[] prev = rows[1];
+        int[] cur = rows[2];
+
+        for (int j = 0; j <= len2; j++) {
+            prev[j] = Math.min(j, over);
+        }
+        for (int i = 1; i <= len1; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(len2, i + maxDistance);
+            // 带外的格子记为 over
+            cur[0] = Math.min(i, over);
+            if (from > 1) {
+                cur[from - 1] = over;
+            }
+            int rowMin = from == 1 ? cur[0] : over;
+            char c1 = s1.charAt(i - 1);
+
+            for (int j = from; j <= to; j++) {
+                char c2 = s2.charAt(j - 1);
+                int d;
+                if (c1 == c2) {
+                    d = prev[j - 1];
                 } else {
-                    int substitution = dp[i - 1][j - 1] + 1;
-                    int deletion = dp[i - 1][j] + 1;
-                    int insertion = dp[i][j - 1] + 1;
-                    
+                    d = Math.min(prev[j - 1] + substitutionCost(c1, c2), Math.min(prev[j], cur[j - 1]) + 1);
                     // 考虑转置错误（相邻字母交换）
-                    int transposition = Integer.MAX_VALUE;
-                    if (i > 1 && j > 1 && 
-                        s1.charAt(i - 1) == s2.charAt(j - 2) && 
-                        s1.charAt(i - 2) == s2.charAt(j - 1)) {
-                        transposition = dp[i - 2][j - 2] + 1;
+                    if (i > 1 && j > 1 && c1 == s2.charAt(j - 2) && s1.charAt(i - 2) == c2) {
+                        d = Math.min(d, prev2[j - 2] + 1);
                     }
-                    
-                    // 考虑键盘布局的相邻字母
-                    if (areKeyboardNeighbors(s1.charAt(i - 1), s2.charAt(j - 1))) {
-                        substitution -= 0.5; // 降低相邻键位字母替换的成本
+                    if (d > over) {
+                        d = over;
                     }
-                    
-                    dp[i][j] = Math.min(Math.min(substitution, deletion), 
-                                      Math.min(insertion, transposition));
                 }
+                cur[j] = d;
+                if (d < rowMin) {
+                    rowMin = d;
+                }
+            }
+            if (to < len2) {
+                cur[to + 1] = over;
+            }
+            // 后续各行的值不会小于本行最小值
+            if (rowMin > maxDistance) {
+                return over;
             }
+
+            int[] recycled = prev2;
+            prev2 = prev;
+            prev = cur;
+            cur = recycled;
         }
-        
-        int maxLen = Math.max(s1.length(), s2.length());
-        return 1.0 - (double) dp[s1.length()][s2.length()] / maxLen;
+        return Math.min(prev[len2], over);
     }
 
-    /**
-     * 简化的编辑距离计算（用于长字符串）
-     */
-    private static double simplifiedEditDistance(String s1, String s2) {
-        int matches = 0;
-        int maxLen = Math.max(s1.length(), s2.length());
-        int minLen = Math.min(s1.length(), s2.length());
-        
-        for (int i = 0; i < minLen; i++) {
-            if (s1.charAt(i) == s2.charAt(i)) {
-                matches++;
-            }
-        }
-        
-        return (double) matches / maxLen;
+    private static int substitutionCost(char c1, char c2) {
+        return c1 < 128 && c2 < 128 ? SUBSTITUTION_COST[c1][c2] : 1;
     }
 
     /**
@@ -254,22 +603,8 @@ public class FuzzyMatchUtil {
      * 优化的常见模式相似度
      */
     private static double commonPatternSimilarity(String s1, String s2) {
-        double similarity = 0.0;
-        
         // 检查常见拼写错误模式
-        for (Map.Entry<String, String> pattern : COMMON_MISSPELLINGS.entrySet()) {
-            String p1 = pattern.getKey();
-            String p2 = pattern.getValue();
-            
-            boolean s1HasP1 = s1.contains(p1);
-            boolean s1HasP2 = s1.contains(p2);
-            boolean s2HasP1 = s2.contains(p1);
-            boolean s2HasP2 = s2.contains(p2);
-            
-            if ((s1HasP1 && s2HasP2) || (s1HasP2 && s2HasP1)) {
-                similarity += 0.5;
-            }
-        }
+        double similarity = patternPairSimilarity(patternMask(s1), patternMask(s2));
         
         // 检查双字母规则
         for (int i = 1; i < s1.length(); i++) {
@@ -283,6 +618,13 @@ public class FuzzyMatchUtil {
             }
         }
         
+        return edgeSimilarity(s1, s2, similarity);
+    }
+
+    /**
+     * 首末字母规则，并将模式相似度限制在 1 以内
+     */
+    private static double edgeSimilarity(String s1, String s2, double similarity) {
         // 检查首字母
         if (s1.length() > 0 && s2.length() > 0 && 
             s1.charAt(0) == s2.charAt(0)) {
@@ -299,49 +641,114 @@ public class FuzzyMatchUtil {
     }
 
     /**
-     * 优化的Q-gram相似度
+     * 字符串中出现的拼写错误模式片段，第 k 位对应 PATTERN_FRAGMENTS[k]
+     */
+    private static long patternMask(String s) {
+        long mask = 0L;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            int[] ids = c < 128 ? FRAGMENTS_BY_FIRST_CHAR[c] : null;
+            if (ids == null) continue;
+            for (int id : ids) {
+                if (s.startsWith(PATTERN_FRAGMENTS[id], i)) {
+                    mask |= 1L << id;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 一方含模式左侧片段、另一方含右侧片段时，每条模式计 0.5
+     */
+    private static double patternPairSimilarity(long mask1, long mask2) {
+        double similarity = 0.0;
+        for (int k = 0; k < PATTERN_LEFT.length; k++) {
+            long left = 1L << PATTERN_LEFT[k];
+            long right = 1L << PATTERN_RIGHT[k];
+            if (((mask1 & left) != 0 && (mask2 & right) != 0) || ((mask1 & right) != 0 && (mask2 & left) != 0)) {
+                similarity += 0.5;
+            }
+        }
+        return similarity;
+    }
+
+    /**
+     * 优化的Q-gram相似度（q = 2）
      */
-    private static double qgramSimilarity(String s1, String s2, int q) {
-        if (s1.length() < q || s2.length() < q) {
+    private static double qgramSimilarity(String s1, String s2) {
+        if (s1.length() < 2 || s2.length() < 2) {
             return normalizedEditDistance(s1, s2);
         }
-        
-        // 使用LinkedHashSet保持顺序
-        Set<String> qgrams1 = new LinkedHashSet<>();
-        Set<String> qgrams2 = new LinkedHashSet<>();
-        
-        // 添加起始和结束标记
-        s1 = "#" + s1 + "#";
-        s2 = "#" + s2 + "#";
-        
-        // 生成q-grams
-        for (int i = 0; i <= s1.length() - q; i++) {
-            qgrams1.add(s1.substring(i, i + q));
+        return qgramSimilarity(bigrams(s1), bigrams(s2));
+    }
+
+    /**
+     * 词头与预处理查询的Q-gram相似度，用于不在 q-gram 索引候选中的词头
+     */
+    public static double qgramSimilarity(String term, Query query) {
+        if (term.length() < 2 || query.text.length() < 2) {
+            return normalizedEditDistance(term, query);
         }
-        for (int i = 0; i <= s2.length() - q; i++) {
-            qgrams2.add(s2.substring(i, i + q));
+        return qgramSimilarity(bigrams(term), query.bigrams);
+    }
+
+    private static double qgramSimilarity(int[] qgrams1, int[] qgrams2) {
+        int common = 0;
+        for (int gram : qgrams1) {
+            if (indexOf(qgrams2, qgrams2.length, gram) >= 0) {
+                common++;
+            }
         }
-        
-        // 计算改进的Jaccard相似度
-        Set<String> union = new HashSet<>(qgrams1);
-        union.addAll(qgrams2);
-        
-        Set<String> intersection = new HashSet<>(qgrams1);
-        intersection.retainAll(qgrams2);
+        return qgramSimilarity(qgrams1, qgrams2, common);
+    }
+
+    /**
+     * 由两组去重 bigram 及其交集大小计算改进的 Jaccard 相似度
+     */
+    static double qgramSimilarity(int[] qgrams1, int[] qgrams2, int common) {
+        return qgramSimilarity(qgrams1, qgrams1.length, qgrams2, qgrams2.length, common);
+    }
+
+    private static double qgramSimilarity(int[] qgrams1, int size1, int[] qgrams2, int size2, int common) {
+        int union = size1 + size2 - common;
         
         // 考虑q-gram的位置信息
         double positionBonus = 0.0;
-        List<String> list1 = new ArrayList<>(qgrams1);
-        List<String> list2 = new ArrayList<>(qgrams2);
-        int minSize = Math.min(list1.size(), list2.size());
-        
+        int minSize = Math.min(size1, size2);
         for (int i = 0; i < minSize; i++) {
-            if (list1.get(i).equals(list2.get(i))) {
+            if (qgrams1[i] == qgrams2[i]) {
                 positionBonus += 0.1;
             }
         }
         
-        return Math.min(1.0, (double) intersection.size() / union.size() + positionBonus);
+        return Math.min(1.0, (double) common / union + positionBonus);
+    }
+
+    /**
+     * 生成带 # 边界标记的去重 bigram（按首次出现的顺序），每个 bigram 编码为一个 int
+     */
+    public static int[] bigrams(String s) {
+        int[] grams = new int[s.length() + 1];
+        int size = 0;
+        for (int i = -1; i < s.length(); i++) {
+            char c1 = i < 0 ? '#' : s.charAt(i);
+            char c2 = i + 1 < s.length() ? s.charAt(i + 1) : '#';
+            int gram = (c1 << 16) | c2;
+            if (indexOf(grams, size, gram) < 0) {
+                grams[size++] = gram;
+            }
+        }
+        return size == grams.length ? grams : Arrays.copyOf(grams, size);
+    }
+
+    private static int indexOf(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -0,0 +1,149 @@
+package com.dictionary.util;
+
+import java.util.*;
+
+/**
+ * 按列存储的词头特征，用于批量模糊查询的快速预筛选
+ * 每个词头占用各列中的同一下标：长度、首字母、末字母以及 64 位 bigram 签名。
+ * 预筛选在这些定长列上批量进行，只有通过筛选的词头才需要逐个计算完整的相似度。默认使用标量循环；
+ * 以 vector 配置构建且运行时加入了 jdk.incubator.vector 模块时使用 SIMD 实现（VectorHeadwordFilter）。
+ * 列只追加，同一时刻只有一个线程写入：各列数组放在一个 {@link Columns} 中，通过一个 volatile 字段整体发布，
+ * 扩容时复制全部列后再替换引用；写入各列后再发布 count，查询先读 count 再读列，无需加锁，
+ * 且不会读到新旧混合的数组。
+ */
+public class HeadwordColumns {
+    // 长度差上限至少为该值，否则为查询长度的一半
+    private static final int MIN_LENGTH_DIFF = 3;
+    // 首末字母都不相同时，至少需要共享的 bigram 签名位数
+    private static final int MIN_SHARED_BIGRAMS = 2;
+
+    // SIMD 实现，不可用时为 null
+    private static final HeadwordFilter VECTOR_FILTER = loadVectorFilter();
+
+    private volatile Columns columns = new Columns(1024);
+    private volatile int count;
+
+    /**
+     * 同一下标对应同一词头的各列；数组引用不变，扩容时整体替换
+     */
+    private static final class Columns {
+        final String[] terms;
+        final long[] lengths;
+        final long[] firsts;
+        final long[] lasts;
+        final long[] signatures;
+
+        Columns(int capacity) {
+            this(new String[capacity], new long[capacity], new long[capacity], new long[capacity], new long[capacity]);
+        }
+
+        private Columns(String[] terms, long[] lengths, long[] firsts, long[] lasts, long[] signatures) {
+            this.terms = terms;
+            this.lengths = lengths;
+            this.firsts = firsts;
+            this.lasts = lasts;
+            this.signatures = signatures;
+        }
+
+        Columns grow() {
+            int capacity = terms.length * 2;
+            return new Columns(Arrays.copyOf(terms, capacity), Arrays.copyOf(lengths, capacity),
+                    Arrays.copyOf(firsts, capacity), Arrays.copyOf(lasts, capacity),
+                    Arrays.copyOf(signatures, capacity));
+        }
+    }
+
+    /**
+     * 添加词头（调用方负责大小写折叠，且每个词头只加入一次）
+     */
+    public void add(String term) {
+        if (term.isEmpty()) {
+            return;
+        }
+        int id = count;
+        Columns columns = this.columns;
+        if (id >= columns.terms.length) {
+            columns = columns.grow();
+            this.columns = columns;
+        }
+        columns.terms[id] = term;
+        columns.lengths[id] = term.length();
+        columns.firsts[id] = term.charAt(0);
+        columns.lasts[id] = term.charAt(term.length() - 1);
+        columns.signatures[id] = signature(FuzzyMatchUtil.bigrams(term));
+        count = id + 1;
+    }
+
+    /**
+     * 预筛选：长度与查询相近，且首字母相同、末字母相同或共享足够多 bigram 的词头
+     */
+    public List<String> filter(FuzzyMatchUtil.Query query) {
+        String text = query.getText();
+        List<String> result = new ArrayList<>();
+        if (text.isEmpty()) {
+            return result;
+        }
+        long qLength = text.length();
+        long qFirst = text.charAt(0);
+        long qLast = text.charAt(text.length() - 1);
+        long qSignature = signature(query.getBigrams());
+        int maxLengthDiff = Math.max(MIN_LENGTH_DIFF, text.length() / 2);
+
+        // 先读 count 再读列：读到的列至少是发布 count 时的那一组，前 count 项都已写入
+        int count = this.count;
+        Columns columns = this.columns;
+        String[] terms = columns.terms;
+        long[] lengths = columns.lengths;
+        long[] firsts = columns.firsts;
+        long[] lasts = columns.lasts;
+        long[] signatures = columns.signatures;
+        int[] matched = new int[count];
+        int size = 0;
+        int start = 0;
+        if (VECTOR_FILTER != null) {
+            size = VECTOR_FILTER.filter(lengths, firsts, lasts, signatures, count,
+                    qLength, qFirst, qLast, qSignature, maxLengthDiff, MIN_SHARED_BIGRAMS, matched);
+            start = VECTOR_FILTER.loopBound(count);
+        }
+        for (int i = start; i < count; i++) {
+            if (Math.abs(lengths[i] - qLength) <= maxLengthDiff
+                    && (firsts[i] == qFirst || lasts[i] == qLast
+                        || Long.bitCount(signatures[i] & qSignature) >= MIN_SHARED_BIGRAMS)) {
+                matched[size++] = i;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            result.add(terms[matched[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * 将 bigram 哈希到 64 位签名中的一位
+     */
+    private static long signature(int[] grams) {
+        long signature = 0L;
+        for (int gram : grams) {
+            signature |= 1L << ((gram * 0x9E3779B1) >>> 26);
+        }
+        return signature;
+    }
+
+    /**
+     * 以 vector 配置构建、且运行时加入了 jdk.incubator.vector 模块（--add-modules jdk.incubator.vector）时
+     * 加载 SIMD 筛选，可通过 -Ddictionary.vector=false 关闭；否则返回 null，使用标量循环。
+     * 默认构建不编译该实现，也不加入孵化模块，编译和运行时不会出现孵化模块的警告。
+     */
+    private static HeadwordFilter loadVectorFilter() {
+        if (!Boolean.parseBoolean(System.getProperty("dictionary.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (HeadwordFilter) Class.forName("com.dictionary.util.VectorHeadwordFilter")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
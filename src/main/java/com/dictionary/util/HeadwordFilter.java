@@ -0,0 +1,21 @@
+package com.dictionary.util;
+
+/**
+ * {@link HeadwordColumns} 预筛选的批量实现
+ * 处理 [0, loopBound(count)) 范围内的词头，其余部分由调用方按标量方式处理。
+ */
+interface HeadwordFilter {
+    /**
+     * 批量处理到的下标上界
+     */
+    int loopBound(int count);
+
+    /**
+     * 筛选 [0, loopBound(count)) 范围内的词头：长度差不超过 maxLengthDiff，
+     * 且首字母相同、末字母相同或签名交集的位数不少于 minShared
+     * @return 写入 out 的下标个数
+     */
+    int filter(long[] lengths, long[] firsts, long[] lasts, long[] signatures, int count,
+               long qLength, long qFirst, long qLast, long qSignature,
+               int maxLengthDiff, int minShared, int[] out);
+}
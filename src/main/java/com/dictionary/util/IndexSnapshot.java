@@ -0,0 +1,251 @@
+package com.dictionary.util;
+
+import com.dictionary.model.Word;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 检索索引快照，保存在 ~/.dictionary 下，下次启动时直接读入而不必重新计算
+ * 保存的是建立代价最高的派生数据：按首次出现顺序排列的小写词头及其常用词标记和词条编号（词头哈希索引）、
+ * 各词头的音素编码和删除邻域索引。q-gram、前缀树等其余索引由词头顺序加入，代价较低，仍在加载时建立。
+ * 快照以二进制词典的内容校验和（记录在文件头中，见 {@link BinaryDictionaryFile#getChecksum()}）及常用词表为键，
+ * 内容改变后快照失效；文件末尾为全部内容的 CRC32。
+ * 读取时整体读入堆内存而不映射，文件不会因仍被映射而无法在 Windows 上被替换。
+ */
+public final class IndexSnapshot {
+    private static final int MAGIC = 0x44494458; // "DIDX"
+    // 删除邻域、音素编码的算法或参数改变时须增加版本号，使已有快照失效
+    private static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int entryCount;
+    private final String[] terms;
+    private final boolean[] common;
+    private final int[][] entryIds;
+    private final PhoneticIndex phoneticIndex;
+    private final DeletionIndex deletionIndex;
+
+    private IndexSnapshot(int entryCount, String[] terms, boolean[] common, int[][] entryIds,
+                          PhoneticIndex phoneticIndex, DeletionIndex deletionIndex) {
+        this.entryCount = entryCount;
+        this.terms = terms;
+        this.common = common;
+        this.entryIds = entryIds;
+        this.phoneticIndex = phoneticIndex;
+        this.deletionIndex = deletionIndex;
+    }
+
+    /**
+     * 计算快照的键：二进制词典的词条数和内容校验和，以及常用词表的 SHA-256
+     * 不读取词典文件本身，加载时不必为计算键而等待
+     */
+    public static byte[] sourceKey(BinaryDictionaryFile source, Collection<String> commonWords) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(ByteBuffer.allocate(2 * Integer.BYTES).putInt(source.size()).putInt(source.getChecksum()).flip());
+        List<String> sorted = new ArrayList<>(commonWords);
+        Collections.sort(sorted);
+        for (String word : sorted) {
+            digest.update(word.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 读取快照：先只读文件头，键相同时才读入其余内容
+     * @return 文件不存在或键不同（源词典已改变）时返回 null
+     * @throws IOException 文件损坏
+     */
+    public static IndexSnapshot read(Path path, byte[] key) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int headerSize = 8 + key.length;
+            if (size < headerSize + Long.BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            readFully(channel, header);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                return null;
+            }
+            byte[] storedKey = new byte[key.length];
+            header.get(8, storedKey);
+            if (!Arrays.equals(storedKey, key)) {
+                return null;
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            buffer.put(header.flip());
+            readFully(channel, buffer);
+            buffer.flip();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            int end = buffer.capacity() - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, end));
+            if (buffer.getLong(end) != crc.getValue()) {
+                throw new IOException("索引快照校验失败");
+            }
+
+            ByteBuffer in = buffer.slice(8 + key.length, end - 8 - key.length);
+            int entryCount = in.getInt();
+            int termCount = in.getInt();
+            String[] terms = new String[termCount];
+            boolean[] common = new boolean[termCount];
+            int[][] entryIds = new int[termCount][];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = readString(in);
+                common[i] = in.get() != 0;
+                int[] ids = new int[in.getInt()];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = in.getInt();
+                }
+                entryIds[i] = ids;
+            }
+            PhoneticIndex phoneticIndex = PhoneticIndex.readFrom(in, terms);
+            DeletionIndex deletionIndex = DeletionIndex.readFrom(in, terms);
+            return new IndexSnapshot(entryCount, terms, common, entryIds, phoneticIndex, deletionIndex);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("索引快照已损坏", e);
+        }
+    }
+
+    /**
+     * 写入由 words 建立的索引的快照；先写临时文件再替换
+     * 索引只追加，之后加入的词头不在 words 中，写出时被忽略，因此可以在索引继续被修改时写入
+     */
+    public static void write(Path path, byte[] key, List<Word> words, Set<String> commonWords,
+                             PhoneticIndex phoneticIndex, DeletionIndex deletionIndex) throws IOException {
+        Map<String, Integer> termIds = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        List<AppendOnlyIntArray> entryIds = new ArrayList<>();
+        for (int id = 0; id < words.size(); id++) {
+            String term = words.get(id).getFoldedWord();
+            Integer termId = termIds.get(term);
+            if (termId == null) {
+                termIds.put(term, terms.size());
+                terms.add(term);
+                entryIds.add(AppendOnlyIntArray.of(id));
+            } else {
+                entryIds.set(termId, entryIds.get(termId).append(id));
+            }
+        }
+        String[] termArray = terms.toArray(new String[0]);
+
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            writeTo(temp, key, words.size(), termArray, termIds, entryIds, commonWords, phoneticIndex, deletionIndex);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeTo(Path temp, byte[] key, int entryCount, String[] termArray, Map<String, Integer> termIds,
+                                List<AppendOnlyIntArray> entryIds, Set<String> commonWords,
+                                PhoneticIndex phoneticIndex, DeletionIndex deletionIndex) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.write(key);
+            out.writeInt(entryCount);
+            out.writeInt(termArray.length);
+            for (int i = 0; i < termArray.length; i++) {
+                writeString(out, termArray[i]);
+                out.writeBoolean(commonWords.contains(termArray[i]));
+                AppendOnlyIntArray ids = entryIds.get(i);
+                out.writeInt(ids.size());
+                for (int j = 0; j < ids.size(); j++) {
+                    out.writeInt(ids.get(j));
+                }
+            }
+            phoneticIndex.writeTo(out, termArray);
+            deletionIndex.writeTo(out, termIds);
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("索引快照不完整");
+            }
+        }
+    }
+
+    /**
+     * 字符串写为 UTF-8 字节数和字节，读取时可直接从映射的缓冲区解码
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 快照对应的词条数
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * 第 i 个小写词头（按首次出现的顺序）
+     */
+    public String getTerm(int i) {
+        return terms[i];
+    }
+
+    public boolean isCommon(int i) {
+        return common[i];
+    }
+
+    /**
+     * 词头为第 i 个词头的词条编号，按编号递增
+     */
+    public int[] getEntryIds(int i) {
+        return entryIds[i];
+    }
+
+    public PhoneticIndex getPhoneticIndex() {
+        return phoneticIndex;
+    }
+
+    public DeletionIndex getDeletionIndex() {
+        return deletionIndex;
+    }
+}
@@ -0,0 +1,153 @@
+package com.dictionary.util;
+
+import com.dictionary.model.Word;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 堆外词条存储，基于 Foreign Function &amp; Memory API
+ * 定长的词条记录和变长的 UTF-8 文本都放在 {@link Arena#ofAuto()} 分配的 {@link MemorySegment} 中，
+ * 堆上只剩少量分段引用，GC 无需扫描或复制词条内容。
+ * 只有词条存储在堆外：各索引（倒排表、前缀树、词头列等）和版本记录仍在堆上，且占用远大于词条文本，
+ * 因此堆大小仍随词条数增长；存储也不以文件为后备，每次启动由映射的二进制词典（{@link BinaryDictionaryFile}）重新写入。
+ * 记录每条 20 字节：文本所在数据段的序号和段内偏移、词头 / 释义 / 简化释义区间的字节数，三者在数据段中依次相连；
+ * 简化释义保存为其在释义中的区间（见 {@link SimplifiedRanges}），不另存文本。
+ * 记录段和数据段都只追加新段，已写入的内容不再移动；段在存储不可达后由 GC 释放。
+ * 文本分段存放，总大小不受 2GB 限制。通过 -Ddictionary.entryStore=offheap 启用（见 {@link EntryStore#create()}）。
+ */
+public final class OffHeapEntryStore implements EntryStore {
+    private static final int RECORD_SIZE = 20;
+    private static final int CHUNK_OFFSET = 0;
+    private static final int DATA_OFFSET = 4;
+    private static final int HEADWORD_LENGTH_OFFSET = 8;
+    private static final int TRANSLATION_LENGTH_OFFSET = 12;
+    private static final int RANGES_LENGTH_OFFSET = 16;
+    // 每个记录段的记录数
+    private static final int RECORDS_PER_SEGMENT_SHIFT = 16;
+    private static final int RECORDS_PER_SEGMENT = 1 << RECORDS_PER_SEGMENT_SHIFT;
+    private static final int DATA_SEGMENT_SIZE = 1 << 22;
+
+    private final Arena arena = Arena.ofAuto();
+    // 数组扩容时替换引用，读取方读到的新旧数组都包含已发布的段
+    private volatile MemorySegment[] recordSegments = new MemorySegment[16];
+    private volatile MemorySegment[] dataSegments = new MemorySegment[16];
+    private volatile int size;
+    // 以下只由写入线程访问
+    private int dataSegmentCount;
+    private long position;
+
+    @Override
+    public int add(Word word) {
+        byte[] headword = word.getWord().getBytes(StandardCharsets.UTF_8);
+        byte[] translation = word.getTranslation().getBytes(StandardCharsets.UTF_8);
+        byte[] simplified = SimplifiedRanges.encode(translation, word.getSimplifiedTranslation());
+        long length = (long) headword.length + translation.length + simplified.length;
+
+        MemorySegment data = dataSegmentCount == 0 ? null : dataSegments[dataSegmentCount - 1];
+        if (data == null || data.byteSize() - position < length) {
+            data = newDataSegment(length);
+        }
+        long offset = position;
+        MemorySegment.copy(headword, 0, data, ValueLayout.JAVA_BYTE, offset, headword.length);
+        MemorySegment.copy(translation, 0, data, ValueLayout.JAVA_BYTE, offset + headword.length, translation.length);
+        MemorySegment.copy(simplified, 0, data, ValueLayout.JAVA_BYTE,
+                offset + headword.length + translation.length, simplified.length);
+        position = offset + length;
+
+        int entry = size;
+        MemorySegment records = recordSegment(entry);
+        long record = recordOffset(entry);
+        records.set(ValueLayout.JAVA_INT, record + CHUNK_OFFSET, dataSegmentCount - 1);
+        records.set(ValueLayout.JAVA_INT, record + DATA_OFFSET, (int) offset);
+        records.set(ValueLayout.JAVA_INT, record + HEADWORD_LENGTH_OFFSET, headword.length);
+        records.set(ValueLayout.JAVA_INT, record + TRANSLATION_LENGTH_OFFSET, translation.length);
+        records.set(ValueLayout.JAVA_INT, record + RANGES_LENGTH_OFFSET, simplified.length);
+        size = entry + 1;
+        return entry;
+    }
+
+    /**
+     * 分配新的数据段；超过段大小的词条单独占一段
+     */
+    private MemorySegment newDataSegment(long minSize) {
+        MemorySegment segment = arena.allocate(Math.max(DATA_SEGMENT_SIZE, minSize));
+        MemorySegment[] target = dataSegments;
+        if (dataSegmentCount == target.length) {
+            target = Arrays.copyOf(target, dataSegmentCount * 2);
+        }
+        target[dataSegmentCount++] = segment;
+        dataSegments = target;
+        position = 0;
+        return segment;
+    }
+
+    /**
+     * 写入线程取得编号所在的记录段，不存在时分配
+     */
+    private MemorySegment recordSegment(int entry) {
+        int index = entry >>> RECORDS_PER_SEGMENT_SHIFT;
+        MemorySegment[] target = recordSegments;
+        if (index == target.length) {
+            target = Arrays.copyOf(target, index * 2);
+        }
+        if (target[index] == null) {
+            target[index] = arena.allocate((long) RECORDS_PER_SEGMENT * RECORD_SIZE, Integer.BYTES);
+        }
+        recordSegments = target;
+        return target[index];
+    }
+
+    private static long recordOffset(int entry) {
+        return (long) (entry & (RECORDS_PER_SEGMENT - 1)) * RECORD_SIZE;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getHeadword(int entry) {
+        return getField(entry, 0);
+    }
+
+    @Override
+    public String getTranslation(int entry) {
+        return getField(entry, 1);
+    }
+
+    @Override
+    public String getSimplifiedTranslation(int entry) {
+        MemorySegment records = recordSegments[entry >>> RECORDS_PER_SEGMENT_SHIFT];
+        long record = recordOffset(entry);
+        MemorySegment data = dataSegments[records.get(ValueLayout.JAVA_INT, record + CHUNK_OFFSET)];
+        long offset = records.get(ValueLayout.JAVA_INT, record + DATA_OFFSET)
+                + records.get(ValueLayout.JAVA_INT, record + HEADWORD_LENGTH_OFFSET);
+        int translationLength = records.get(ValueLayout.JAVA_INT, record + TRANSLATION_LENGTH_OFFSET);
+        // 释义和其后的区间一起复制出来再解码
+        byte[] bytes = new byte[translationLength + records.get(ValueLayout.JAVA_INT, record + RANGES_LENGTH_OFFSET)];
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, offset, bytes, 0, bytes.length);
+        return SimplifiedRanges.decode(bytes, 0, translationLength);
+    }
+
+    /**
+     * 读取词头（index 为 0）或释义（index 为 1）：按记录中的字节数跳过之前的字段
+     */
+    private String getField(int entry, int index) {
+        MemorySegment records = recordSegments[entry >>> RECORDS_PER_SEGMENT_SHIFT];
+        long record = recordOffset(entry);
+        MemorySegment data = dataSegments[records.get(ValueLayout.JAVA_INT, record + CHUNK_OFFSET)];
+        long offset = records.get(ValueLayout.JAVA_INT, record + DATA_OFFSET);
+        for (int i = 0; i < index; i++) {
+            offset += records.get(ValueLayout.JAVA_INT, record + HEADWORD_LENGTH_OFFSET + i * Integer.BYTES);
+        }
+        int length = records.get(ValueLayout.JAVA_INT, record + HEADWORD_LENGTH_OFFSET + index * Integer.BYTES);
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
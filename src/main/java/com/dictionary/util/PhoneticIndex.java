@@ -0,0 +1,121 @@
+package com.dictionary.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 音素编码索引
+ * 加载时为每个词头计算一次 {@link FuzzyMatchUtil#getPhoneticCode(String)}，
+ * 维护 编码 -> 词头 的多值映射以及按编码排序的前缀结构，
+ * 读音相近的候选（如 "fonetik" -> "phonetic"）可直接按桶查找得到。
+ * 索引只追加，同一时刻只有一个线程写入，桶为 {@link AppendOnlyArray}，查询无需加锁。
+ */
+public class PhoneticIndex {
+    // 前缀扩展时最多返回的词头数
+    private static final int MAX_PREFIX_TERMS = 64;
+    // 编码过短时前缀扩展的候选太多，不做扩展
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private final Map<String, AppendOnlyArray<String>> buckets = new ConcurrentHashMap<>();
+    private final NavigableSet<String> codes = new ConcurrentSkipListSet<>();
+    private final Map<String, String> termCodes = new ConcurrentHashMap<>();
+
+    /**
+     * 添加词头（调用方负责大小写折叠）
+     */
+    public void add(String term) {
+        if (!termCodes.containsKey(term)) {
+            add(term, FuzzyMatchUtil.getPhoneticCode(term));
+        }
+    }
+
+    private void add(String term, String code) {
+        termCodes.put(term, code);
+        if (code.isEmpty()) {
+            return;
+        }
+        AppendOnlyArray<String> bucket = buckets.get(code);
+        if (bucket == null) {
+            buckets.put(code, AppendOnlyArray.of(term));
+            codes.add(code);
+        } else {
+            buckets.put(code, bucket.append(term));
+        }
+    }
+
+    /**
+     * 按顺序写出各词头的音素编码
+     */
+    void writeTo(DataOutputStream out, String[] terms) throws IOException {
+        for (String term : terms) {
+            IndexSnapshot.writeString(out, codeOf(term));
+        }
+    }
+
+    /**
+     * 读取 {@link #writeTo} 写出的编码并按同样的顺序加入词头，不再计算编码
+     */
+    static PhoneticIndex readFrom(ByteBuffer in, String[] terms) {
+        PhoneticIndex index = new PhoneticIndex();
+        for (String term : terms) {
+            index.add(term, IndexSnapshot.readString(in));
+        }
+        return index;
+    }
+
+    /**
+     * 获取已索引词头的音素编码，未索引时现算
+     */
+    public String codeOf(String term) {
+        String code = termCodes.get(term);
+        return code != null ? code : FuzzyMatchUtil.getPhoneticCode(term);
+    }
+
+    /**
+     * 判断词头是否可能出现在 lookup(code) 的结果中：编码相同，或编码足够长时以其为前缀
+     * 前缀扩展有数量上限，这里不考虑上限，结果偏宽
+     */
+    public boolean matches(String term, String code) {
+        if (code.isEmpty()) {
+            return false;
+        }
+        String termCode = codeOf(term);
+        return termCode.equals(code) || (code.length() >= MIN_PREFIX_LENGTH && termCode.startsWith(code));
+    }
+
+    /**
+     * 查找与查询编码相同的词头，以及编码以查询编码为前缀的词头（数量有限）
+     */
+    public Set<String> lookup(String code) {
+        Set<String> result = new LinkedHashSet<>();
+        if (code.isEmpty()) {
+            return result;
+        }
+        AppendOnlyArray<String> bucket = buckets.get(code);
+        if (bucket != null) {
+            for (int i = 0; i < bucket.size(); i++) {
+                result.add(bucket.get(i));
+            }
+        }
+
+        if (code.length() >= MIN_PREFIX_LENGTH) {
+            int added = 0;
+            for (String longer : codes.subSet(code, false, code + Character.MAX_VALUE, false)) {
+                AppendOnlyArray<String> terms = buckets.get(longer);
+                if (terms == null) continue;
+                for (int i = 0; i < terms.size(); i++) {
+                    String term = terms.get(i);
+                    if (added++ >= MAX_PREFIX_TERMS) {
+                        return result;
+                    }
+                    result.add(term);
+                }
+            }
+        }
+        return result;
+    }
+}
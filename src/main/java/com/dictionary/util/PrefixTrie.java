@@ -0,0 +1,173 @@
+package com.dictionary.util;
+
+import java.util.*;
+
+/**
+ * 词头前缀树，用于输入时的自动补全
+ * 每个节点保存其子树中按权重排序的前 K 个补全结果，查询只需沿前缀走到对应节点即可直接返回，
+ * 与词典大小无关。子节点按字符排序存放在数组中，节点更紧凑；加入词头时只更新路径上的节点。
+ * 移除词头时只重算路径上各节点的补全列表，由子节点的补全列表和以该节点结尾的词头合并得出。
+ * 同一时刻只有一个线程写入：子节点数组和补全列表都整体替换而不原地修改，查询无需加锁。
+ */
+public class PrefixTrie {
+    private final int topK;
+    private final Node root = new Node('\0');
+    // 只由写入线程访问
+    private final Map<String, Integer> weights = new HashMap<>();
+
+    // 排序：权重高的在前，其次较短的在前，最后按字母序
+    private final Comparator<String> ranking = (a, b) -> {
+        int cmp = Integer.compare(weights.get(b), weights.get(a));
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(a.length(), b.length());
+        return cmp != 0 ? cmp : a.compareTo(b);
+    };
+
+    public PrefixTrie(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * 添加词头（调用方负责大小写折叠）
+     * @param weight 权重，越大越靠前
+     */
+    public void add(String term, int weight) {
+        if (weights.containsKey(term)) {
+            return;
+        }
+        weights.put(term, weight);
+        Node node = root;
+        node.offer(term);
+        for (int i = 0; i < term.length(); i++) {
+            node = node.childOrCreate(term.charAt(i));
+            node.offer(term);
+        }
+        node.terminal = term;
+    }
+
+    /**
+     * 移除词头，使其不再出现在补全结果中，也不再占用补全名额；不存在时忽略
+     * 节点本身保留，之后可重新加入
+     */
+    public void remove(String term) {
+        if (weights.remove(term) == null) {
+            return;
+        }
+        Node[] path = new Node[term.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < term.length(); i++) {
+            path[i + 1] = path[i].child(term.charAt(i));
+        }
+        path[term.length()].terminal = null;
+        // 自下而上重算，上层节点合并的是已经更新过的子节点补全列表
+        for (int i = term.length(); i >= 0; i--) {
+            path[i].recompute();
+        }
+    }
+
+    /**
+     * 返回以 prefix 开头的补全词头，按权重排序，最多 limit 个（不超过 topK）
+     */
+    public List<String> complete(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        String[] top = node.top;
+        return Arrays.asList(Arrays.copyOf(top, Math.min(limit, top.length)));
+    }
+
+    private final class Node {
+        private final char label;
+        // 以该节点结尾的词头，只由写入线程访问
+        private String terminal;
+        // 按 label 排序的子节点
+        private volatile Node[] children = new Node[0];
+        // 子树中排名前 K 的词头，已排序，长度即个数
+        private volatile String[] top = new String[0];
+
+        Node(char label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            Node[] nodes = children;
+            int index = indexOf(nodes, c);
+            return index >= 0 ? nodes[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            Node[] nodes = children;
+            int index = indexOf(nodes, c);
+            if (index >= 0) {
+                return nodes[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node(c);
+            Node[] grown = new Node[nodes.length + 1];
+            System.arraycopy(nodes, 0, grown, 0, insertAt);
+            grown[insertAt] = child;
+            System.arraycopy(nodes, insertAt, grown, insertAt + 1, nodes.length - insertAt);
+            children = grown;
+            return child;
+        }
+
+        /**
+         * 尝试将词头加入补全列表
+         */
+        void offer(String term) {
+            String[] current = top;
+            int size = current.length;
+            if (size == topK && ranking.compare(term, current[size - 1]) >= 0) {
+                return;
+            }
+            int pos = size;
+            while (pos > 0 && ranking.compare(term, current[pos - 1]) < 0) {
+                pos--;
+            }
+            String[] updated = new String[Math.min(size + 1, topK)];
+            System.arraycopy(current, 0, updated, 0, pos);
+            updated[pos] = term;
+            System.arraycopy(current, pos, updated, pos + 1, updated.length - pos - 1);
+            top = updated;
+        }
+
+        /**
+         * 由以该节点结尾的词头和各子节点的补全列表重新得出该节点的补全列表
+         */
+        void recompute() {
+            List<String> merged = new ArrayList<>();
+            if (terminal != null) {
+                merged.add(terminal);
+            }
+            for (Node child : children) {
+                merged.addAll(Arrays.asList(child.top));
+            }
+            merged.sort(ranking);
+            top = merged.subList(0, Math.min(topK, merged.size())).toArray(new String[0]);
+        }
+    }
+
+    /**
+     * 按字符二分查找子节点，未找到时返回 -(插入位置) - 1
+     */
+    private static int indexOf(Node[] nodes, char c) {
+        int low = 0;
+        int high = nodes.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = nodes[mid].label;
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.dictionary.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 词头 bigram 倒排索引
+ * 与 {@link FuzzyMatchUtil} 使用相同的 # 边界标记。查询时按倒排表累计每个词头与查询共有的
+ * bigram 数，再用长度过滤和计数过滤剪枝，只有 Jaccard 相似度可能达到阈值的词头才会成为候选，
+ * 且其 q-gram 相似度直接由索引中的计数得出。
+ * 索引只追加，同一时刻只有一个线程写入，倒排表为 {@link AppendOnlyIntArray}，查询无需加锁。
+ */
+public class QGramIndex {
+    private static final double DEFAULT_MIN_OVERLAP = 0.3;
+
+    private final double minOverlap;
+    // bigram -> 词头编号的倒排表
+    private final Map<Integer, AppendOnlyIntArray> postings = new ConcurrentHashMap<>();
+    // 编号 -> 词头及其 bigram；扩容时先复制再替换引用，倒排表中出现的编号总在数组范围内
+    private volatile String[] terms = new String[1024];
+    private volatile int[][] termGrams = new int[1024][];
+    private int nextId;
+
+    // 每个线程复用的计数数组
+    private final ThreadLocal<int[]> counters = ThreadLocal.withInitial(() -> new int[0]);
+
+    public QGramIndex() {
+        this(DEFAULT_MIN_OVERLAP);
+    }
+
+    public QGramIndex(double minOverlap) {
+        this.minOverlap = minOverlap;
+    }
+
+    /**
+     * 添加词头（调用方负责大小写折叠，且每个词头只加入一次）；少于两个字符的词头不参与 q-gram 比较
+     */
+    public void add(String term) {
+        if (term.length() < 2) {
+            return;
+        }
+        int id = nextId++;
+        if (id >= terms.length) {
+            int capacity = terms.length * 2;
+            termGrams = Arrays.copyOf(termGrams, capacity);
+            terms = Arrays.copyOf(terms, capacity);
+        }
+        int[] grams = FuzzyMatchUtil.bigrams(term);
+        terms[id] = term;
+        termGrams[id] = grams;
+        for (int gram : grams) {
+            AppendOnlyIntArray list = postings.get(gram);
+            postings.put(gram, list == null ? AppendOnlyIntArray.of(id) : list.append(id));
+        }
+    }
+
+    /**
+     * 查找与查询共享足够多 bigram 的词头
+     * @return 词头 -> q-gram 相似度
+     */
+    public Map<String, Double> lookup(FuzzyMatchUtil.Query query) {
+        Map<String, Double> result = new HashMap<>();
+        int[] queryGrams = query.getBigrams();
+        if (query.getText().length() < 2) {
+            return result;
+        }
+        AppendOnlyIntArray[] lists = new AppendOnlyIntArray[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            lists[i] = postings.get(queryGrams[i]);
+        }
+        // 在读取倒排表之后读取数组引用，保证其中的编号都在数组范围内
+        String[] names = terms;
+        int[][] grams = termGrams;
+
+        // 长度过滤：Jaccard >= t 要求 t * |A| <= |B| <= |A| / t
+        int qSize = queryGrams.length;
+        int minSize = (int) Math.ceil(minOverlap * qSize);
+        int maxSize = (int) Math.floor(qSize / minOverlap);
+
+        int[] counts = counters.get();
+        if (counts.length < grams.length) {
+            counts = new int[grams.length];
+            counters.set(counts);
+        }
+        int[] touched = new int[16];
+        int touchedSize = 0;
+        for (AppendOnlyIntArray list : lists) {
+            if (list == null) continue;
+            for (int i = 0; i < list.size(); i++) {
+                int id = list.get(i);
+                int size = grams[id].length;
+                if (size < minSize || size > maxSize) continue;
+                if (counts[id]++ == 0) {
+                    if (touchedSize == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedSize * 2);
+                    }
+                    touched[touchedSize++] = id;
+                }
+            }
+        }
+
+        for (int i = 0; i < touchedSize; i++) {
+            int id = touched[i];
+            int common = counts[id];
+            counts[id] = 0;
+            // 计数过滤：|A ∩ B| >= t * (|A| + |B|) / (1 + t)
+            int[] termGram = grams[id];
+            if (common < minOverlap * (qSize + termGram.length) / (1 + minOverlap)) continue;
+            result.put(names[id], FuzzyMatchUtil.qgramSimilarity(termGram, queryGrams, common));
+        }
+        return result;
+    }
+
+    /**
+     * 判断词头是否满足 lookup(query) 的长度过滤和计数过滤（不要求词头已加入索引）
+     */
+    public boolean matches(String term, FuzzyMatchUtil.Query query) {
+        if (term.length() < 2 || query.getText().length() < 2) {
+            return false;
+        }
+        int[] queryGrams = query.getBigrams();
+        int[] grams = FuzzyMatchUtil.bigrams(term);
+        int qSize = queryGrams.length;
+        if (grams.length < Math.ceil(minOverlap * qSize) || grams.length > Math.floor(qSize / minOverlap)) {
+            return false;
+        }
+        int common = 0;
+        for (int gram : queryGrams) {
+            for (int termGram : grams) {
+                if (termGram == gram) {
+                    common++;
+                    break;
+                }
+            }
+        }
+        return common > 0 && common >= minOverlap * (qSize + grams.length) / (1 + minOverlap);
+    }
+}
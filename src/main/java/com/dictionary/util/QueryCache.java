@@ -0,0 +1,382 @@
+package com.dictionary.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按权重限定容量的查询结果缓存，采用 W-TinyLFU 淘汰策略
+ * 新条目先进入容量约 1% 的窗口 LRU，被挤出窗口后与主区（分为试用段和保护段的分段 LRU）中最久未用的条目比较
+ * 访问频率（由 4 位计数的 Count-Min Sketch 近似统计，定期减半老化），频率更高者留下。
+ * 读操作不加锁：命中时只把节点写入有损的环形读缓冲区，由拿到锁的线程批量回放以更新 LRU 顺序；
+ * 写入、淘汰和失效在锁内进行。
+ */
+public class QueryCache<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int DEAD = 3;
+
+    private static final int READ_BUFFER_SIZE = 128;
+    // 每写入这么多次读记录尝试回放一次
+    private static final int DRAIN_THRESHOLD = 32;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ToIntFunction<V> weigher;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readCounter = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumWeight 所有条目权重之和的上限
+     * @param weigher 计算条目权重，至少为 1
+     */
+    public QueryCache(long maximumWeight, ToIntFunction<V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch((int) Math.min(maximumWeight, 1 << 20));
+    }
+
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            Node<K, V> old = data.get(key);
+            if (old != null) {
+                unlink(old);
+            }
+            Node<K, V> node = new Node<>(key, value, weight);
+            data.put(key, node);
+            sketch.increment(key.hashCode());
+            node.queue = WINDOW;
+            window.addLast(node);
+            windowWeight += weight;
+            totalWeight += weight;
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 键当前对应的值仍是 value 时移除该条目
+     */
+    public void remove(K key, V value) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node != null && node.value == value) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 移除满足条件的条目
+     */
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            for (Node<K, V> node : data.values()) {
+                if (predicate.test(node.key, node.value)) {
+                    unlink(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        invalidateIf((key, value) -> true);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void recordRead(Node<K, V> node) {
+        long index = readCounter.getAndIncrement();
+        readBuffer.lazySet((int) (index & (READ_BUFFER_SIZE - 1)), node);
+        if ((index & (DRAIN_THRESHOLD - 1)) == 0 && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            Node<K, V> node = readBuffer.getAndSet(i, null);
+            if (node != null) {
+                onAccess(node);
+            }
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == DEAD) {
+            return;
+        }
+        sketch.increment(node.key.hashCode());
+        if (node.queue == WINDOW) {
+            window.moveToEnd(node);
+        } else if (node.queue == PROBATION) {
+            // 试用段中再次被访问的条目晋升到保护段
+            probation.remove(node);
+            node.queue = PROTECTED;
+            protectedSegment.addLast(node);
+            protectedWeight += node.weight;
+            while (protectedWeight > protectedMaximum) {
+                Node<K, V> demoted = protectedSegment.pollFirst();
+                protectedWeight -= demoted.weight;
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else {
+            protectedSegment.moveToEnd(node);
+        }
+    }
+
+    private void evict() {
+        // 窗口溢出的条目进入试用段末尾，成为准入候选
+        while (windowWeight > windowMaximum) {
+            Node<K, V> node = window.pollFirst();
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+        }
+
+        while (totalWeight > maximumWeight) {
+            Node<K, V> victim = probation.peekFirst();
+            Node<K, V> candidate = probation.peekLast();
+            if (victim == null) {
+                victim = protectedSegment.peekFirst();
+                candidate = null;
+            }
+            if (victim == null) {
+                victim = window.peekFirst();
+            }
+            if (candidate != null && candidate != victim
+                    && sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                victim = candidate;
+            }
+            unlink(victim);
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        data.remove(node.key, node);
+        switch (node.queue) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> {
+                protectedSegment.remove(node);
+                protectedWeight -= node.weight;
+            }
+            default -> {
+                return;
+            }
+        }
+        totalWeight -= node.weight;
+        node.queue = DEAD;
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private volatile int queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * 按访问顺序排列的双向链表，头部为最久未访问的节点
+     */
+    private static final class AccessOrderDeque<K, V> {
+        private final Node<K, V> head = new Node<>(null, null, 0);
+
+        AccessOrderDeque() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToEnd(Node<K, V> node) {
+            remove(node);
+            addLast(node);
+        }
+
+        Node<K, V> peekFirst() {
+            return head.next == head ? null : head.next;
+        }
+
+        Node<K, V> peekLast() {
+            return head.prev == head ? null : head.prev;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> node = peekFirst();
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * 4 位计数的 Count-Min Sketch，用于估计键的访问频率
+     * 每个 long 存放 16 个计数器，每个键在 4 个不同的 long 中各占一个计数器；
+     * 累计记录次数达到容量的 10 倍时所有计数减半，使频率随时间衰减。
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int size;
+
+        FrequencySketch(int capacity) {
+            int length = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+            table = new long[length];
+            tableMask = length - 1;
+            sampleSize = 10 * length;
+        }
+
+        int frequency(int hashCode) {
+            int hash = spread(hashCode);
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(int hashCode) {
+            int hash = spread(hashCode);
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                long mask = 0xfL << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size /= 2;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int spread(int x) {
+            x ^= x >>> 17;
+            x *= 0xed5ad4bb;
+            x ^= x >>> 11;
+            x *= 0xac4c1b51;
+            x ^= x >>> 15;
+            return x;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.dictionary.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 定长的相似度缓存
+ * 以 (词条的存储编号, 查询的 64 位哈希) 为键、float 为值，存放在预先分配的基本类型数组中（开放寻址，每个键只在
+ * 相邻的 SET_SIZE 个槽位中查找），满时按 clock 算法淘汰最近未被访问的槽位。占用内存固定，与查询次数无关，
+ * 查找和写入既不读取词头也不创建对象。分段加锁以支持并行打分。
+ * 存储编号只在同一个 {@link EntryStore} 内有意义，缓存应与存储一同创建、一同丢弃。
+ */
+public class SimilarityMemo {
+    private static final int SEGMENT_COUNT = 16;
+    // 每个键可使用的相邻槽位数
+    private static final int SET_SIZE = 8;
+    // 空槽位：查找到此为止
+    private static final int EMPTY = -1;
+    // 已失效的槽位：查找越过它继续，写入时优先复用
+    private static final int TOMBSTONE = -2;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity 总槽位数，向上取整为 2 的幂
+     */
+    public SimilarityMemo(int capacity) {
+        int perSegment = Integer.highestOneBit(Math.max(SET_SIZE, capacity / SEGMENT_COUNT - 1) << 1);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * 查询文本的 64 位哈希（FNV-1a），每次查询只需计算一次
+     */
+    public static long hashQuery(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @return 缓存的相似度，不存在时返回 NaN
+     */
+    public float get(int entry, long queryHash) {
+        long hash = mix(entry, queryHash);
+        float value = segments[(int) (hash >>> 60)].get(entry, queryHash, (int) hash);
+        if (Float.isNaN(value)) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    public void put(int entry, long queryHash, float value) {
+        long hash = mix(entry, queryHash);
+        segments[(int) (hash >>> 60)].put(entry, queryHash, (int) hash, value);
+    }
+
+    /**
+     * 移除词条的全部缓存值，用于词条被删除或替换后尽早腾出槽位
+     */
+    public void invalidate(int entry) {
+        for (Segment segment : segments) {
+            segment.invalidate(entry);
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static long mix(int entry, long queryHash) {
+        long hash = entry * 0x9E3779B97F4A7C15L ^ queryHash;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Segment {
+        private final int mask;
+        // 存储编号，或 EMPTY、TOMBSTONE
+        private final int[] entries;
+        private final long[] queries;
+        private final float[] values;
+        // clock 算法的访问标记
+        private final boolean[] referenced;
+
+        Segment(int capacity) {
+            mask = capacity - 1;
+            entries = new int[capacity];
+            Arrays.fill(entries, EMPTY);
+            queries = new long[capacity];
+            values = new float[capacity];
+            referenced = new boolean[capacity];
+        }
+
+        synchronized float get(int entry, long query, int hash) {
+            for (int i = 0; i < SET_SIZE; i++) {
+                int slot = (hash + i) & mask;
+                int stored = entries[slot];
+                if (stored == EMPTY) {
+                    break;
+                }
+                if (stored == entry && queries[slot] == query) {
+                    referenced[slot] = true;
+                    return values[slot];
+                }
+            }
+            return Float.NaN;
+        }
+
+        synchronized void put(int entry, long query, int hash, float value) {
+            int victim = -1;
+            int reusable = -1;
+            for (int i = 0; i < SET_SIZE; i++) {
+                int slot = (hash + i) & mask;
+                int stored = entries[slot];
+                if (stored == entry && queries[slot] == query) {
+                    victim = slot;
+                    break;
+                }
+                if (stored == TOMBSTONE && reusable < 0) {
+                    reusable = slot;
+                } else if (stored == EMPTY) {
+                    victim = reusable >= 0 ? reusable : slot;
+                    break;
+                }
+            }
+            if (victim < 0) {
+                victim = reusable;
+            }
+            if (victim < 0) {
+                // 依次清除访问标记，选出第一个未被访问的槽位；全部被访问过时淘汰起始槽位
+                victim = hash & mask;
+                for (int i = 0; i < SET_SIZE; i++) {
+                    int slot = (hash + i) & mask;
+                    if (!referenced[slot]) {
+                        victim = slot;
+                        break;
+                    }
+                    referenced[slot] = false;
+                }
+            }
+            entries[victim] = entry;
+            queries[victim] = query;
+            values[victim] = value;
+            referenced[victim] = false;
+        }
+
+        /**
+         * 将词条的槽位标记为失效；查找遇到空槽位即停止，因此不能直接置空
+         */
+        synchronized void invalidate(int entry) {
+            for (int slot = 0; slot <= mask; slot++) {
+                if (entries[slot] == entry) {
+                    entries[slot] = TOMBSTONE;
+                    referenced[slot] = false;
+                }
+            }
+        }
+
+        synchronized void clear() {
+            Arrays.fill(entries, EMPTY);
+            Arrays.fill(referenced, false);
+        }
+    }
+}
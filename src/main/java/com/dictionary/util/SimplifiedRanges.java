@@ -0,0 +1,121 @@
+package com.dictionary.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 简化释义在释义 UTF-8 字节中的区间编码，供词条存储使用
+ * 简化释义（见 {@link com.dictionary.model.Word#getSimplifiedTranslation()}）只是从释义中删去部分字符，
+ * 因此可以表示为释义的若干字节区间，存储时只需几个字节而不必再保存一份文本。
+ * 编码为变长整数序列：区间数，以及每个区间相对上一区间终点的起点和区间长度。
+ * 区间数为 0 时其后直接是简化释义的字节数和 UTF-8 字节：简化释义为空，或释义含孤立的代理字符、
+ * 删去字符后拼成了新的字符，其编码不再是释义编码的子序列。
+ */
+final class SimplifiedRanges {
+    private SimplifiedRanges() {
+    }
+
+    /**
+     * 编码 simplified 在 translation（UTF-8 字节）中的区间
+     */
+    static byte[] encode(byte[] translation, String simplified) {
+        byte[] target = simplified.getBytes(StandardCharsets.UTF_8);
+        // 从后向前逐字节匹配：删去的多是开头的词性和括号内容，这样区间最少，常见情况只有一个区间
+        int[] ranges = new int[8];
+        int count = 0;
+        int i = translation.length;
+        for (int j = target.length - 1; j >= 0; j--) {
+            do {
+                i--;
+            } while (i >= 0 && translation[i] != target[j]);
+            if (i < 0) {
+                count = 0;
+                break;
+            }
+            if (count > 0 && ranges[count * 2 - 2] == i + 1) {
+                ranges[count * 2 - 2] = i;
+            } else {
+                if (count * 2 == ranges.length) {
+                    ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                }
+                ranges[count * 2] = i;
+                ranges[count * 2 + 1] = i + 1;
+                count++;
+            }
+        }
+
+        if (count == 0) {
+            byte[] out = new byte[10 + target.length];
+            int position = putVarint(out, putVarint(out, 0, 0), target.length);
+            System.arraycopy(target, 0, out, position, target.length);
+            return Arrays.copyOf(out, position + target.length);
+        }
+        byte[] out = new byte[5 + count * 10];
+        int position = putVarint(out, 0, count);
+        int previousEnd = 0;
+        // 区间按从后向前的顺序收集，倒序写出
+        for (int range = count - 1; range >= 0; range--) {
+            int start = ranges[range * 2];
+            int end = ranges[range * 2 + 1];
+            position = putVarint(out, position, start - previousEnd);
+            position = putVarint(out, position, end - start);
+            previousEnd = end;
+        }
+        return Arrays.copyOf(out, position);
+    }
+
+    /**
+     * 按 rangesOffset 处的区间从 translationOffset 起的释义字节中取出简化释义
+     */
+    static String decode(byte[] data, int translationOffset, int rangesOffset) {
+        int[] position = {rangesOffset};
+        int count = getVarint(data, position);
+        if (count == 0) {
+            int length = getVarint(data, position);
+            return new String(data, position[0], length, StandardCharsets.UTF_8);
+        }
+        if (count == 1) {
+            int start = translationOffset + getVarint(data, position);
+            return new String(data, start, getVarint(data, position), StandardCharsets.UTF_8);
+        }
+        int[] ranges = new int[count * 2];
+        int length = 0;
+        int previousEnd = translationOffset;
+        for (int range = 0; range < count; range++) {
+            int start = previousEnd + getVarint(data, position);
+            previousEnd = start + getVarint(data, position);
+            ranges[range * 2] = start;
+            ranges[range * 2 + 1] = previousEnd;
+            length += previousEnd - start;
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (int range = 0; range < count; range++) {
+            int rangeLength = ranges[range * 2 + 1] - ranges[range * 2];
+            System.arraycopy(data, ranges[range * 2], bytes, offset, rangeLength);
+            offset += rangeLength;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int putVarint(byte[] out, int offset, int value) {
+        while (value >= 0x80) {
+            out[offset++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        out[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int getVarint(byte[] data, int[] position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,118 @@
+package com.dictionary.util;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 有界 Top-K 选择
+ * 每个线程维护一个容量为 K 的小顶堆（分数和下标分别存放在基本类型数组中），最后合并，
+ * 只需 O(K) 的额外对象和 O(N log K) 的比较，替代对全部结果排序后再截取。
+ * 分数相同时下标小的优先，与对原序列做稳定排序的结果一致。
+ */
+public final class TopKSelector {
+    private TopKSelector() {
+    }
+
+    /**
+     * 对下标 0..n-1 打分，返回分数大于 minScore 的前 k 个下标，按分数从高到低排列
+     * @param parallel 是否并行打分（打分函数需线程安全）
+     */
+    public static int[] select(int n, IntToDoubleFunction scorer, double minScore, int k, boolean parallel) {
+        if (k <= 0 || n <= 0) {
+            return new int[0];
+        }
+        IntStream indices = IntStream.range(0, n);
+        if (parallel) {
+            indices = indices.parallel();
+        }
+        Heap heap = indices.collect(() -> new Heap(k), (h, i) -> {
+            double score = scorer.applyAsDouble(i);
+            if (score > minScore) {
+                h.offer(score, i);
+            }
+        }, Heap::merge);
+        return heap.drain();
+    }
+
+    private static final class Heap {
+        private final double[] scores;
+        private final int[] indices;
+        private int size;
+
+        Heap(int capacity) {
+            scores = new double[capacity];
+            indices = new int[capacity];
+        }
+
+        void offer(double score, int index) {
+            if (size < scores.length) {
+                scores[size] = score;
+                indices[size] = index;
+                siftUp(size++);
+            } else if (worse(scores[0], indices[0], score, index)) {
+                scores[0] = score;
+                indices[0] = index;
+                siftDown(0);
+            }
+        }
+
+        void merge(Heap other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.scores[i], other.indices[i]);
+            }
+        }
+
+        /**
+         * 依次取出堆顶（最差者），倒序填充即得到从高到低的顺序
+         */
+        int[] drain() {
+            int[] result = new int[size];
+            while (size > 0) {
+                result[size - 1] = indices[0];
+                size--;
+                scores[0] = scores[size];
+                indices[0] = indices[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(scores[i], indices[i], scores[parent], indices[parent])) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int worst = left;
+                int right = left + 1;
+                if (right < size && worse(scores[right], indices[right], scores[left], indices[left])) {
+                    worst = right;
+                }
+                if (!worse(scores[worst], indices[worst], scores[i], indices[i])) break;
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            int index = indices[a];
+            indices[a] = indices[b];
+            indices[b] = index;
+        }
+
+        // (s1, i1) 是否排在 (s2, i2) 之后：分数更低，或分数相同而下标更大
+        private static boolean worse(double s1, int i1, double s2, int i2) {
+            return s1 < s2 || (s1 == s2 && i1 > i2);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.dictionary.util;
+
+import com.dictionary.model.Word;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 释义倒排索引，用于中译英查询
+ * 由词条预先简化并切分好的义项（见 {@link Word#getMeanings()}）建立 义项 -> (词条, 义项位置)
+ * 以及 汉字 bigram / 单字 -> 词条 的倒排表。命中只记录编号，不持有词条对象。
+ * 查询时按义项精确命中，或对查询词的 bigram 倒排表求交集得到候选，无需对全部词条重复做正则处理。
+ * 索引只追加，同一时刻只有一个线程写入，倒排表为 {@link AppendOnlyArray}，查询无需加锁；
+ * 词条被删除或修改后旧的命中仍留在索引中，由调用方在查询时按可见性过滤。
+ */
+public class TranslationIndex {
+    // 小写义项 -> 命中位置
+    private final Map<String, AppendOnlyArray<Posting>> segments = new ConcurrentHashMap<>();
+    // 汉字 bigram（两字编码为一个 int）或单字 -> 词条；同一词条在各倒排表中共用一个 Posting
+    private final Map<Integer, AppendOnlyArray<Posting>> grams = new ConcurrentHashMap<>();
+
+    /**
+     * 加入词条；同一编号修改后的词条以新的存储编号再次加入即可
+     * @param id 词条编号
+     * @param entry 词条在 {@link EntryStore} 中的存储编号，每个版本不同
+     */
+    public void add(int id, int entry, Word word) {
+        List<String> meanings = word.getMeanings();
+        for (int i = 0; i < meanings.size(); i++) {
+            String meaning = meanings.get(i);
+            if (!meaning.isEmpty()) {
+                // 义项即整条简化释义时记下，精确查询无需再读取释义比较
+                boolean whole = meanings.size() == 1 && meaning.equals(word.getSimplifiedTranslation());
+                append(segments, meaning.toLowerCase(), new Posting(id, entry, i, whole));
+            }
+        }
+        Posting posting = new Posting(id, entry, -1, false);
+        for (int gram : indexGrams(word.getSimplifiedTranslation())) {
+            append(grams, gram, posting);
+        }
+    }
+
+    private static <K> void append(Map<K, AppendOnlyArray<Posting>> map, K key, Posting posting) {
+        AppendOnlyArray<Posting> postings = map.get(key);
+        map.put(key, postings == null ? AppendOnlyArray.of(posting) : postings.append(posting));
+    }
+
+    /**
+     * 查找释义中有义项与查询完全相同（忽略大小写）的词条
+     * 结果包含已删除或已修改词条的旧命中，由调用方过滤
+     */
+    public List<Posting> lookupMeaning(String text) {
+        AppendOnlyArray<Posting> postings = segments.get(text.trim().toLowerCase());
+        if (postings == null) {
+            return Collections.emptyList();
+        }
+        List<Posting> result = new ArrayList<>(postings.size());
+        for (int i = 0; i < postings.size(); i++) {
+            result.add(postings.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 查找中译英候选
+     * 义项完全命中的词条记录其第一个命中的义项位置；其余候选为包含查询全部汉字 bigram（单字查询为该字）的词条，位置记为 -1。
+     * 只保留 visible 接受的命中，每个词条只出现一次，顺序与加入索引的顺序一致。
+     */
+    public List<Posting> lookup(String text, Predicate<Posting> visible) {
+        List<Posting> result = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (Posting posting : lookupMeaning(text)) {
+            if (visible.test(posting) && seen.add(posting.entry)) {
+                result.add(posting);
+            }
+        }
+
+        int[] queryGrams = cjkGrams(text);
+        if (queryGrams.length == 0) {
+            return result;
+        }
+        // 从最短的倒排表开始求交集
+        List<AppendOnlyArray<Posting>> lists = new ArrayList<>(queryGrams.length);
+        for (int gram : queryGrams) {
+            AppendOnlyArray<Posting> postings = grams.get(gram);
+            if (postings == null) {
+                return result;
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(AppendOnlyArray::size));
+        AppendOnlyArray<Posting> shortest = lists.get(0);
+        List<Posting> intersection = new ArrayList<>(shortest.size());
+        for (int i = 0; i < shortest.size(); i++) {
+            intersection.add(shortest.get(i));
+        }
+        for (int i = 1; i < lists.size() && !intersection.isEmpty(); i++) {
+            AppendOnlyArray<Posting> list = lists.get(i);
+            Set<Posting> next = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int j = 0; j < list.size(); j++) {
+                next.add(list.get(j));
+            }
+            List<Posting> retained = new ArrayList<>();
+            for (Posting posting : intersection) {
+                if (next.contains(posting)) {
+                    retained.add(posting);
+                }
+            }
+            intersection = retained;
+        }
+        for (Posting posting : intersection) {
+            if (visible.test(posting) && seen.add(posting.entry)) {
+                result.add(posting);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 判断词条是否会出现在 lookup(text) 的结果中（不要求词条已加入索引）
+     */
+    public static boolean matches(Word word, String text) {
+        String key = text.trim().toLowerCase();
+        for (String meaning : word.getMeanings()) {
+            if (!meaning.isEmpty() && meaning.toLowerCase().equals(key)) {
+                return true;
+            }
+        }
+        int[] queryGrams = cjkGrams(text);
+        if (queryGrams.length == 0) {
+            return false;
+        }
+        int[] wordGrams = indexGrams(word.getSimplifiedTranslation());
+        for (int gram : queryGrams) {
+            if (!contains(wordGrams, wordGrams.length, gram)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 提取文本中相邻汉字组成的 bigram；文本只有一个汉字时返回该字本身，结果去重
+     */
+    private static int[] cjkGrams(String text) {
+        int[] result = new int[text.length()];
+        int size = 0;
+        int cjkCount = 0;
+        int single = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isCJK(c)) continue;
+            cjkCount++;
+            single = c;
+            if (i + 1 < text.length() && isCJK(text.charAt(i + 1))) {
+                int gram = (c << 16) | text.charAt(i + 1);
+                if (!contains(result, size, gram)) {
+                    result[size++] = gram;
+                }
+            }
+        }
+        if (size == 0 && cjkCount == 1) {
+            return new int[] {single};
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * 词条索引用的 gram：所有汉字 bigram 和单字
+     */
+    private static int[] indexGrams(String text) {
+        int[] result = new int[text.length() * 2];
+        int size = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isCJK(c)) continue;
+            if (!contains(result, size, c)) {
+                result[size++] = c;
+            }
+            if (i + 1 < text.length() && isCJK(text.charAt(i + 1))) {
+                int gram = (c << 16) | text.charAt(i + 1);
+                if (!contains(result, size, gram)) {
+                    result[size++] = gram;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean contains(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCJK(char c) {
+        Character.UnicodeBlock ub = Character.UnicodeBlock.of(c);
+        return ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+            || ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A;
+    }
+
+    /**
+     * 义项命中：词条编号、存储编号、该义项在释义中的位置（0 为主要含义）及该义项是否为整条简化释义
+     */
+    public static final class Posting {
+        private final int id;
+        private final int entry;
+        private final int position;
+        private final boolean whole;
+
+        private Posting(int id, int entry, int position, boolean whole) {
+            this.id = id;
+            this.entry = entry;
+            this.position = position;
+            this.whole = whole;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getEntry() {
+            return entry;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * 词条的简化释义只有这一个义项，与查询忽略大小写相同即整条释义相同
+         */
+        public boolean isWholeTranslation() {
+            return whole;
+        }
+    }
+}
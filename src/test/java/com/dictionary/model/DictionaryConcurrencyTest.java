@@ -0,0 +1,198 @@
+package com.dictionary.model;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * 查询与修改并发进行时，每次读取都只看到某一个完整的版本（见 Dictionary 的 Snapshot / Slot），
+ * 包括修改积累的旧版本触发重建词条表之后
+ */
+public class DictionaryConcurrencyTest {
+    private static final int KEYS = 16;
+    private static final int BATCH_SIZE = 8;
+    // 每轮修改全部 KEYS 个词条并删除一批，总计远超触发重建所需的旧版本数
+    private static final int ROUNDS = 200;
+    private static final int READERS = 4;
+
+    @Test
+    public void readersSeeConsistentVersionsWhileWriting() throws Exception {
+        Dictionary dictionary = new Dictionary();
+        // 写入方按与 Dictionary 相同的规则维护的预期内容：修改保持位置，删除移除，加入追加到末尾
+        List<Word> model = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            model.add(new Word(keyName(i, false), "t0"));
+        }
+        dictionary.addAll(model);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(READERS);
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                int newestBatch = -1;
+                started.countDown();
+                try {
+                    while (!done.get() && failure.get() == null) {
+                        newestBatch = checkVersion(dictionary.getAllWords(), newestBatch);
+                        checkQueries(dictionary);
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        started.await();
+
+        boolean[] renamed = new boolean[KEYS];
+        for (int round = 1; round <= ROUNDS && failure.get() == null; round++) {
+            List<Word> batch = new ArrayList<>();
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                batch.add(new Word(batchName(round, j), "batch"));
+            }
+            dictionary.addAll(batch);
+            model.addAll(batch);
+
+            for (int i = 0; i < KEYS; i++) {
+                Word oldWord = model.get(i);
+                renamed[i] = !renamed[i];
+                Word newWord = new Word(keyName(i, renamed[i]), "t" + round);
+                dictionary.modifyWord(oldWord, newWord);
+                model.set(i, newWord);
+            }
+
+            if (round > 2) {
+                // 按批内顺序逐条删除，读取方可能看到删去了前一部分的批次
+                for (int j = 0; j < BATCH_SIZE; j++) {
+                    Word word = new Word(batchName(round - 2, j), "batch");
+                    dictionary.removeWord(word);
+                    model.remove(word);
+                }
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError("读取方看到了不一致的版本", failure.get());
+        }
+        assertTrue("读取方没有运行", reads.get() > 0);
+        // 多次重建词条表后，内容和顺序仍与逐条修改的结果相同
+        assertEquals(model, dictionary.getAllWords());
+        assertEquals(model.size(), dictionary.size());
+        checkVersion(dictionary.getAllWords(), -1);
+    }
+
+    @Test
+    public void modifyKeepsPositionAcrossRebuild() {
+        Dictionary dictionary = new Dictionary();
+        List<Word> model = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            model.add(new Word("word" + i, "v0"));
+        }
+        dictionary.addAll(model);
+        // 旧版本数超过重建阈值
+        for (int v = 1; v <= 300; v++) {
+            for (int i = 0; i < model.size(); i++) {
+                Word newWord = new Word("word" + i, "v" + v);
+                dictionary.modifyWord(model.get(i), newWord);
+                model.set(i, newWord);
+            }
+        }
+        dictionary.removeWord(model.remove(3));
+        assertEquals(model, dictionary.getAllWords());
+        assertTrue(dictionary.contains(new Word("word4", "v300")));
+        assertFalse(dictionary.contains(new Word("word3", "v300")));
+        assertEquals(new Word("word4", "v300"), dictionary.search("WORD4", true));
+    }
+
+    /**
+     * 检查一次读取得到的词条是否来自同一个版本：
+     * 每个键恰好有一个词条且位于开头、按加入顺序排列；批次整体出现，只有最早的批次可能删去了前一部分；
+     * 最新批次不早于同一读取方上一次看到的
+     * @return 看到的最新批次
+     */
+    private static int checkVersion(List<Word> words, int previousNewest) {
+        assertEquals("重复的词条", words.size(), new HashSet<>(words).size());
+        assertTrue("缺少键", words.size() >= KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            String headword = words.get(i).getWord();
+            assertTrue("键的顺序或数量不对: " + headword,
+                    headword.equals(keyName(i, false)) || headword.equals(keyName(i, true)));
+        }
+
+        SortedMap<Integer, BitSet> batches = new TreeMap<>();
+        for (int index = KEYS; index < words.size(); index++) {
+            String headword = words.get(index).getWord();
+            assertTrue("多余的键: " + headword, headword.startsWith("batch"));
+            int w = headword.indexOf('w');
+            int round = Integer.parseInt(headword.substring("batch".length(), w));
+            int member = Integer.parseInt(headword.substring(w + 1));
+            batches.computeIfAbsent(round, k -> new BitSet()).set(member);
+        }
+        if (batches.isEmpty()) {
+            return previousNewest;
+        }
+
+        int oldest = batches.firstKey();
+        int newest = batches.lastKey();
+        assertTrue("最新批次倒退: " + newest + " < " + previousNewest, newest >= previousNewest);
+        assertTrue("同时存在的批次过多: " + batches.keySet(), newest - oldest <= 2);
+        for (Map.Entry<Integer, BitSet> batch : batches.entrySet()) {
+            BitSet members = batch.getValue();
+            if (batch.getKey() == oldest) {
+                // 正在删除的批次：剩下的是后一部分
+                int first = members.nextSetBit(0);
+                assertEquals("批次 " + oldest + " 的删除顺序不对", BATCH_SIZE - first, members.cardinality());
+            } else {
+                assertEquals("批次 " + batch.getKey() + " 不完整", BATCH_SIZE, members.cardinality());
+            }
+        }
+        for (int round = oldest; round <= newest; round++) {
+            assertTrue("缺少批次 " + round, batches.containsKey(round));
+        }
+        return newest;
+    }
+
+    /**
+     * 走索引的查询与修改并发时不出错，返回的词条都是完整的
+     */
+    private static void checkQueries(Dictionary dictionary) {
+        for (int i = 0; i < KEYS; i += 5) {
+            // 没有该词头时可能命中拼写变体（如键盘相邻字母），但必须是某个键的完整词条
+            Word found = dictionary.search(keyName(i, false), true);
+            if (found != null) {
+                assertTrue(found.getWord(), found.getWord().startsWith("key"));
+                assertTrue(found.getTranslation(), found.getTranslation().startsWith("t"));
+            }
+        }
+        for (Word word : dictionary.findCompletions("batch")) {
+            assertTrue(word.getWord(), word.getWord().startsWith("batch"));
+            assertEquals("batch", word.getTranslation());
+        }
+        for (Word word : dictionary.findSimilarWords("keyza", true)) {
+            assertNotNull(word.getTranslation());
+        }
+    }
+
+    private static String keyName(int i, boolean renamed) {
+        return "key" + (char) ('a' + i) + (renamed ? "b" : "a");
+    }
+
+    private static String batchName(int round, int member) {
+        return "batch" + round + "w" + member;
+    }
+}
@@ -0,0 +1,109 @@
+package com.dictionary.service;
+
+import com.dictionary.model.ImportJob;
+import com.dictionary.model.Word;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 导入的最终状态：解析途中取消时，即使写入阶段空闲、已取到结束标记，也不能记为完成；
+ * 去重只记住尚未写入的批次，更早的重复由 exists 识别
+ */
+public class DictionaryServiceImportTest {
+    // 导入按每批 1000 条处理，保证有多个批次
+    private static final int ROWS = 5000;
+
+    @Test
+    public void completesWhenNotCancelled() throws IOException {
+        Path csv = createCsv();
+        try {
+            List<Word> written = Collections.synchronizedList(new ArrayList<>());
+            ImportJob job = DictionaryService.runUnrecordedImport(csv.toFile(), null, written::addAll, null, null);
+            assertEquals(ImportJob.STATUS_COMPLETED, job.getStatus());
+            assertEquals(ROWS, job.getWordsWritten());
+            assertEquals(ROWS, written.size());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    public void cancelBeforeFirstBatchIsCancelled() throws IOException {
+        Path csv = createCsv();
+        try {
+            List<Word> written = Collections.synchronizedList(new ArrayList<>());
+            // 解析第一批时即取消，写入阶段从未收到批次
+            ImportJob job = DictionaryService.runUnrecordedImport(csv.toFile(), null, written::addAll, null, () -> true);
+            assertEquals(ImportJob.STATUS_CANCELLED, job.getStatus());
+            assertEquals(0, job.getWordsWritten());
+            assertTrue(written.isEmpty());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    public void cancelDuringParseIsCancelled() throws IOException {
+        Path csv = createCsv();
+        try {
+            List<Word> written = Collections.synchronizedList(new ArrayList<>());
+            // 解析和写入阶段都会检查取消标志，第三次检查起取消，此时解析尚未读完
+            AtomicInteger checks = new AtomicInteger();
+            File file = csv.toFile();
+            ImportJob job = DictionaryService.runUnrecordedImport(file, null, written::addAll, null,
+                    () -> checks.incrementAndGet() > 2);
+            assertEquals(ImportJob.STATUS_CANCELLED, job.getStatus());
+            assertTrue(job.getWordsWritten() < ROWS);
+            assertEquals(job.getWordsWritten(), written.size());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    @Test
+    public void duplicatesOfWrittenBatchesAreSkipped() throws IOException {
+        Path csv = createCsv();
+        try {
+            // 整个文件再追加一遍，重复词与首次出现相隔数个批次
+            Files.write(csv, Files.readAllLines(csv, StandardCharsets.UTF_8).subList(1, ROWS + 1),
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            Set<Word> written = Collections.synchronizedSet(new HashSet<>());
+            ImportJob job = DictionaryService.runUnrecordedImport(csv.toFile(), written::contains, batch -> {
+                for (Word word : batch) {
+                    assertTrue("重复写入: " + word.getWord(), written.add(word));
+                }
+            }, null, null);
+            assertEquals(ImportJob.STATUS_COMPLETED, job.getStatus());
+            assertEquals(ROWS, job.getWordsWritten());
+            assertEquals(ROWS, written.size());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private static Path createCsv() throws IOException {
+        Path csv = Files.createTempFile("import", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("word,translation\n");
+            for (int i = 0; i < ROWS; i++) {
+                out.write("word" + i + ",释义" + i + "\n");
+            }
+        }
+        return csv;
+    }
+}
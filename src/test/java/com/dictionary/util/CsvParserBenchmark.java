@@ -0,0 +1,112 @@
+package com.dictionary.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * CsvParser 吞吐量基准：生成含引号换行、引号内逗号和转义引号的 RFC 4180 文件，
+ * 分别测量流式解析、映射后顺序解析和分块并行解析的 MB/s。
+ * 不是单元测试，不随 mvn test 运行；在测试类路径上手动运行：
+ * <pre>
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.dictionary.util.CsvParserBenchmark -Dexec.args="256"
+ * </pre>
+ * 参数为生成文件的大小（MB，默认 128）。
+ */
+public class CsvParserBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        long targetBytes = (args.length > 0 ? Long.parseLong(args[0]) : 128) << 20;
+        Path csv = Files.createTempFile("csv-benchmark", ".csv");
+        try {
+            long records = generate(csv, targetBytes);
+            long size = Files.size(csv);
+            System.out.printf("文件 %.1f MB，%d 条记录，%d 个处理器%n",
+                    size / 1048576.0, records, Runtime.getRuntime().availableProcessors());
+
+            // 三种方式都保留全部记录，与 parseFile 的调用方一致
+            measure("流式", size, records, () -> {
+                List<String[]> parsed = new ArrayList<>();
+                try (InputStream in = Files.newInputStream(csv)) {
+                    CsvParser.parse(in, parsed::add);
+                }
+                return parsed.size();
+            });
+            measure("顺序", size, records, () -> CsvParser.parseFile(csv, 1).size());
+            // 单处理器上也走分块路径，此时只反映切分的开销
+            int chunks = Math.max(2, Runtime.getRuntime().availableProcessors() * 4);
+            measure("并行分块", size, records, () -> CsvParser.parseFile(csv, chunks).size());
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private interface Run {
+        long parse() throws IOException;
+    }
+
+    private static void measure(String name, long size, long expected, Run run) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            check(name, run.parse(), expected);
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            long parsed = run.parse();
+            long elapsed = System.nanoTime() - start;
+            check(name, parsed, expected);
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-8s 平均 %8.1f MB/s，最好 %8.1f MB/s%n", name,
+                mbPerSecond(size, total / MEASURED_ROUNDS), mbPerSecond(size, best));
+    }
+
+    private static void check(String name, long parsed, long expected) {
+        if (parsed != expected) {
+            throw new IllegalStateException(name + "解析出 " + parsed + " 条记录，应为 " + expected);
+        }
+    }
+
+    private static double mbPerSecond(long bytes, long nanos) {
+        return bytes / 1048576.0 / (nanos / 1e9);
+    }
+
+    /**
+     * 词头,释义 两列；约三分之一的释义加引号，其中含逗号、换行（LF 与 CRLF）和转义引号
+     */
+    private static long generate(Path csv, long targetBytes) throws IOException {
+        Random random = new Random(42);
+        long records = 0;
+        long written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("word,translation\r\n");
+            records++;
+            StringBuilder line = new StringBuilder();
+            while (written < targetBytes) {
+                line.setLength(0);
+                line.append("word").append(records).append(',');
+                switch (random.nextInt(6)) {
+                    case 0 -> line.append("\"n. 释义").append(records).append(",\n第二行 \"\"引用\"\"\"");
+                    case 1 -> line.append("\"v. 动词, 名词\r\nadj. 形容词\"");
+                    default -> line.append("n. 释义").append(records).append("；名词");
+                }
+                line.append(random.nextBoolean() ? "\r\n" : "\n");
+                out.append(line);
+                written += line.toString().getBytes(StandardCharsets.UTF_8).length;
+                records++;
+            }
+        }
+        return records;
+    }
+}